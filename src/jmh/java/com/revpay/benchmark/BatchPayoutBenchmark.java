@@ -0,0 +1,91 @@
+package com.revpay.benchmark;
+
+import com.revpay.entity.Money;
+import com.revpay.entity.User;
+import com.revpay.repository.UserRepository;
+import com.revpay.service.BatchPayoutService;
+import com.revpay.service.BatchPayoutService.LineResult;
+import com.revpay.service.BatchPayoutService.PayoutLine;
+import com.revpay.service.PaymentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One bulk payout of 10k / 100k lines from a business account, each line
+ * paying 0.01 to one of the seeded users. Every invocation is timed once;
+ * lines/s is the line count divided by the score, and BatchPayoutService also
+ * logs it per run.
+ *
+ * @since 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BatchPayoutBenchmark {
+
+    private static final int USERS = 10_000;
+    // Every tenth seeded user is a business account
+    private static final long SENDER_ID = 10L;
+    private static final Money LINE_AMOUNT = Money.ofMinor(1);
+
+    @Param({"10000", "100000"})
+    public int lines;
+
+    private BenchmarkContext context;
+    private BatchPayoutService batchPayoutService;
+    private PaymentService paymentService;
+    private User sender;
+    private List<PayoutLine> payout;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(USERS, 0);
+        batchPayoutService = context.bean(BatchPayoutService.class);
+        paymentService = context.bean(PaymentService.class);
+        sender = context.bean(UserRepository.class).findById(SENDER_ID).orElseThrow();
+
+        payout = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            long recipient = 2 + i % (USERS - 1);
+            if (recipient == SENDER_ID) {
+                recipient = 1;
+            }
+            String email = recipient == 1 ? DataSetGenerator.OWNER_EMAIL : "user" + recipient + "@bench.revpay";
+            payout.add(new PayoutLine(i + 1, email, LINE_AMOUNT, "bench payout " + i));
+        }
+    }
+
+    // Top the sender up so every run can pay all of its lines
+    @Setup(Level.Iteration)
+    public void fundSender() {
+        paymentService.addMoney(sender, LINE_AMOUNT.times(lines));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<LineResult> payout() {
+        return batchPayoutService.payout(sender, payout);
+    }
+}
@@ -0,0 +1,23 @@
+package com.revpay.benchmark;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Service layer without the console UI, for benchmarks.
+ *
+ * RevpayApplication is left out on purpose: it starts the interactive console
+ * while the context is still being built.
+ *
+ * @since 1.1
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EntityScan("com.revpay.entity")
+@EnableJpaRepositories("com.revpay.repository")
+@ComponentScan(basePackages = {"com.revpay.config", "com.revpay.security", "com.revpay.service"})
+public class BenchmarkApplication {
+}
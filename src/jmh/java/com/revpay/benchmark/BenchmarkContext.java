@@ -0,0 +1,62 @@
+package com.revpay.benchmark;
+
+import com.revpay.entity.User;
+import com.revpay.repository.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Boots the service layer on a private in-memory H2 database and seeds it.
+ *
+ * Each context gets its own database name, so forks and trials never share
+ * data. Settings are passed as command-line properties, which take precedence
+ * over the MySQL settings in application.properties.
+ *
+ * @since 1.1
+ */
+public final class BenchmarkContext implements AutoCloseable {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private final ConfigurableApplicationContext context;
+    private final User owner;
+
+    private BenchmarkContext(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.owner = context.getBean(UserRepository.class)
+                .findByEmailOrPhone(DataSetGenerator.OWNER_EMAIL, DataSetGenerator.OWNER_EMAIL)
+                .orElseThrow(() -> new IllegalStateException("Benchmark data set was not generated"));
+    }
+
+    public static BenchmarkContext start(int users, int transactions) {
+        String database = "revpay_bench_" + DATABASES.incrementAndGet();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+
+        new DataSetGenerator(context.getBean(NamedParameterJdbcTemplate.class)).generate(users, transactions);
+        return new BenchmarkContext(context);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // User 1, a party to every generated transaction
+    public User owner() {
+        return owner;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,123 @@
+package com.revpay.benchmark;
+
+import com.revpay.entity.NotificationPreference;
+import com.revpay.entity.enums.AccountType;
+import com.revpay.entity.enums.NotificationType;
+import com.revpay.entity.enums.TransactionStatus;
+import com.revpay.entity.enums.TransactionType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds a reproducible data set with plain JDBC batches.
+ *
+ * The same seed always produces the same users, amounts and timestamps, so
+ * results from different releases are comparable. User 1 is the benchmark
+ * account and is a party to every generated transaction.
+ *
+ * @since 1.1
+ */
+public class DataSetGenerator {
+
+    public static final String OWNER_EMAIL = "owner@bench.revpay";
+    public static final String PASSWORD = "password";
+    public static final String PIN = "1234";
+
+    private static final long SEED = 42L;
+    private static final int BATCH_SIZE = 5_000;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final long OWNER_BALANCE_MINOR = 1_000_000_000_000L;
+    private static final long COUNTERPARTY_BALANCE_MINOR = 10_000_000L;
+
+    private static final String INSERT_USER =
+            "insert into users (full_name, email, phone, password_hash, transaction_pin_hash, account_type, " +
+                    "wallet_balance, failed_login_attempts, account_locked, business_verified, created_at, updated_at) " +
+                    "values (:fullName, :email, :phone, :passwordHash, :pinHash, :accountType, " +
+                    ":walletBalance, 0, false, false, :createdAt, :createdAt)";
+
+    private static final String INSERT_TRANSACTION =
+            "insert into transactions (sender_id, receiver_id, amount, transaction_type, status, note, created_at) " +
+                    "values (:senderId, :receiverId, :amount, :type, :status, :note, :createdAt)";
+
+    private static final String INSERT_PREFERENCE =
+            "insert into notification_preferences (user_id, enabled_mask, updated_at) " +
+                    "values (:userId, :mask, :updatedAt)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public DataSetGenerator(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts {@code users} accounts and {@code transactions} transfers between
+     * the benchmark account and the others.
+     *
+     * @param users        number of accounts, at least 2
+     * @param transactions number of transactions
+     */
+    public void generate(int users, int transactions) {
+        if (users < 2) {
+            throw new IllegalArgumentException("At least two users are needed");
+        }
+        Random random = new Random(SEED);
+        // One hash at the default cost for everyone; BCrypt would otherwise dominate seeding time
+        String pinHash = BCrypt.hashpw(PIN, BCrypt.gensalt());
+
+        List<MapSqlParameterSource> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= users; i++) {
+            batch.add(new MapSqlParameterSource()
+                    .addValue("fullName", "Bench User " + i)
+                    .addValue("email", i == 1 ? OWNER_EMAIL : "user" + i + "@bench.revpay")
+                    .addValue("phone", String.format("9%09d", i))
+                    .addValue("passwordHash", PASSWORD)
+                    .addValue("pinHash", pinHash)
+                    .addValue("accountType", (i % 10 == 0 ? AccountType.BUSINESS : AccountType.PERSONAL).name())
+                    .addValue("walletBalance", i == 1 ? OWNER_BALANCE_MINOR : COUNTERPARTY_BALANCE_MINOR)
+                    .addValue("createdAt", Timestamp.valueOf(EPOCH)));
+            if (batch.size() == BATCH_SIZE) {
+                flush(INSERT_USER, batch);
+            }
+        }
+        flush(INSERT_USER, batch);
+
+        for (int i = 0; i < transactions; i++) {
+            long counterparty = 2 + random.nextInt(users - 1);
+            boolean outgoing = random.nextBoolean();
+            batch.add(new MapSqlParameterSource()
+                    .addValue("senderId", outgoing ? 1L : counterparty)
+                    .addValue("receiverId", outgoing ? counterparty : 1L)
+                    .addValue("amount", 100L + random.nextInt(1_000_000))
+                    .addValue("type", TransactionType.SEND.name())
+                    .addValue("status", TransactionStatus.COMPLETED.name())
+                    .addValue("note", "bench " + i)
+                    .addValue("createdAt", Timestamp.valueOf(EPOCH.plusSeconds(i))));
+            if (batch.size() == BATCH_SIZE) {
+                flush(INSERT_TRANSACTION, batch);
+            }
+        }
+        flush(INSERT_TRANSACTION, batch);
+
+        batch.add(new MapSqlParameterSource()
+                .addValue("userId", 1L)
+                .addValue("mask", NotificationPreference.toMask(
+                        EnumSet.of(NotificationType.TRANSACTION, NotificationType.REQUEST, NotificationType.ALERT)))
+                .addValue("updatedAt", Timestamp.valueOf(EPOCH)));
+        flush(INSERT_PREFERENCE, batch);
+    }
+
+    private void flush(String sql, List<MapSqlParameterSource> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch.toArray(new MapSqlParameterSource[0]));
+            batch.clear();
+        }
+    }
+}
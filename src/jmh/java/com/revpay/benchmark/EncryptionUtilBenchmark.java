@@ -0,0 +1,50 @@
+package com.revpay.benchmark;
+
+import com.revpay.security.EncryptionUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card number encryption and decryption. Needs no database.
+ *
+ * @since 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncryptionUtilBenchmark {
+
+    private static final String CARD_NUMBER = "4111111111111111";
+
+    private EncryptionUtil encryptionUtil;
+    private String encrypted;
+
+    @Setup
+    public void setUp() {
+        encryptionUtil = new EncryptionUtil("REV_PAY_BENCHMARK_SECRET", 1, "");
+        encrypted = encryptionUtil.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return encryptionUtil.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return encryptionUtil.decrypt(encrypted);
+    }
+}
@@ -0,0 +1,74 @@
+package com.revpay.benchmark;
+
+import com.revpay.service.LoginRateLimiter;
+import com.revpay.service.SecurityService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Credential-stuffing load test for the login path.
+ *
+ * Runs wrong-password logins against the seeded accounts from many fake
+ * sources at growing thread counts and prints login attempts per second next
+ * to users-table writes per second. With the rate limiter in front, writes
+ * stay bounded by the number of accounts being locked, however hard the
+ * attack pushes.
+ *
+ * <pre>mvn -Pbenchmark compile exec:java -Dexec.mainClass=com.revpay.benchmark.LoginLoadTest</pre>
+ *
+ * @since 1.1
+ */
+public class LoginLoadTest {
+
+    private static final int USERS = 1_000;
+    private static final int SOURCES = 10_000;
+    private static final int[] THREADS = {1, 4, 16, 64};
+    private static final long STAGE_SECONDS = 10;
+
+    public static void main(String[] args) throws InterruptedException {
+        try (BenchmarkContext context = BenchmarkContext.start(USERS, 0)) {
+            SecurityService securityService = context.bean(SecurityService.class);
+            LoginRateLimiter limiter = context.bean(LoginRateLimiter.class);
+
+            System.out.printf("%8s %16s %16s%n", "threads", "attempts/s", "db writes/s");
+            for (int threads : THREADS) {
+                AtomicLong attempts = new AtomicLong();
+                long writesBefore = limiter.getDbWrites();
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(STAGE_SECONDS);
+
+                List<Thread> attackers = new ArrayList<>(threads);
+                for (int t = 0; t < threads; t++) {
+                    Thread attacker = new Thread(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        while (System.nanoTime() < deadline) {
+                            int user = 1 + random.nextInt(USERS);
+                            String identifier = user == 1 ? DataSetGenerator.OWNER_EMAIL : "user" + user + "@bench.revpay";
+                            String source = "10.0." + random.nextInt(SOURCES / 256 + 1) + "." + random.nextInt(256);
+                            try {
+                                securityService.login(identifier, "wrong-password", source);
+                            } catch (RuntimeException expected) {
+                                // wrong password, locked out or throttled
+                            }
+                            attempts.incrementAndGet();
+                        }
+                    }, "login-attacker-" + t);
+                    attackers.add(attacker);
+                    attacker.start();
+                }
+                for (Thread attacker : attackers) {
+                    attacker.join();
+                }
+                // Let the flusher write what this stage queued
+                TimeUnit.SECONDS.sleep(2);
+
+                long writes = limiter.getDbWrites() - writesBefore;
+                System.out.printf("%8d %16.0f %16.1f%n", threads,
+                        attempts.get() / (double) STAGE_SECONDS, writes / (double) STAGE_SECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.revpay.benchmark;
+
+import com.revpay.entity.User;
+import com.revpay.entity.enums.NotificationType;
+import com.revpay.service.NotificationPreferenceStore;
+import com.revpay.service.NotificationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notification preference reads, from the cache and from the database, and
+ * the single-type check made for every notification sent.
+ *
+ * @since 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class NotificationServiceBenchmark {
+
+    private static final int USERS = 1_000;
+
+    private BenchmarkContext context;
+    private NotificationService notificationService;
+    private NotificationPreferenceStore preferenceStore;
+    private User owner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(USERS, 0);
+        notificationService = context.bean(NotificationService.class);
+        preferenceStore = context.bean(NotificationPreferenceStore.class);
+        owner = context.owner();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Set<NotificationType> preferencesCached() {
+        return notificationService.getUserNotificationPreferences(owner);
+    }
+
+    @Benchmark
+    public boolean preferenceCheck() {
+        return preferenceStore.isEnabled(owner, NotificationType.ALERT);
+    }
+
+    @Benchmark
+    public Set<NotificationType> preferencesUncached() {
+        preferenceStore.invalidate(owner.getId());
+        return notificationService.getUserNotificationPreferences(owner);
+    }
+}
@@ -0,0 +1,78 @@
+package com.revpay.benchmark;
+
+import com.revpay.entity.User;
+import com.revpay.repository.UserCredentials;
+import com.revpay.repository.UserRepository;
+import com.revpay.service.SecurityService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login and transaction PIN checks, plus the credential projection a login
+ * reads against the full user row it used to load.
+ *
+ * @since 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SecurityServiceBenchmark {
+
+    private static final int USERS = 1_000;
+
+    private BenchmarkContext context;
+    private SecurityService securityService;
+    private UserRepository userRepository;
+    private User owner;
+    private long source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(USERS, 0);
+        securityService = context.bean(SecurityService.class);
+        userRepository = context.bean(UserRepository.class);
+        owner = context.owner();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // A fresh source per call keeps the per-source rate limit out of the measurement
+    @Benchmark
+    public User login() {
+        return securityService.login(DataSetGenerator.OWNER_EMAIL, DataSetGenerator.PASSWORD, "bench-" + source++);
+    }
+
+    @Benchmark
+    public Optional<UserCredentials> credentialsProjection() {
+        return userRepository.findCredentialsByEmailOrPhone(DataSetGenerator.OWNER_EMAIL);
+    }
+
+    @Benchmark
+    public Optional<User> fullUserLoad() {
+        return userRepository.findByEmailOrPhone(DataSetGenerator.OWNER_EMAIL, DataSetGenerator.OWNER_EMAIL);
+    }
+
+    @Benchmark
+    public boolean verifyPin() {
+        return securityService.verifyPin(owner, DataSetGenerator.PIN);
+    }
+}
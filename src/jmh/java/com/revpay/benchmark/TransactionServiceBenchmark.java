@@ -0,0 +1,88 @@
+package com.revpay.benchmark;
+
+import com.revpay.entity.Money;
+import com.revpay.entity.Transaction;
+import com.revpay.entity.User;
+import com.revpay.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfers, history reads and CSV export against 1k / 100k / 1M seeded transactions.
+ *
+ * @since 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransactionServiceBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "100000", "1000000"})
+    public int transactions;
+
+    private BenchmarkContext context;
+    private TransactionService transactionService;
+    private User owner;
+    private String receiver;
+    private Path exportFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start(USERS, transactions);
+        transactionService = context.bean(TransactionService.class);
+        owner = context.owner();
+        receiver = "user2@bench.revpay";
+        exportFile = Files.createTempFile("revpay-bench-export", ".csv");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(exportFile);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Transaction sendMoney() {
+        return transactionService.sendMoney(owner, receiver, Money.ofMinor(1));
+    }
+
+    @Benchmark
+    public List<Transaction> historyFirstPage() {
+        return transactionService.getTransactionHistoryPage(owner, null, null, null, null, null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Transaction> historyFull() {
+        return transactionService.getTransactionHistory(owner, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public long exportHistory() {
+        return transactionService.exportTransactionHistory(owner, null, null, null, null, null,
+                exportFile.toString(), false);
+    }
+}
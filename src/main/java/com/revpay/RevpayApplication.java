@@ -1,10 +1,13 @@
 package com.revpay;
 
 import com.revpay.consoleui.Main;
-import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 
 
 @SpringBootApplication(scanBasePackages = {"com.revpay"})
@@ -17,8 +20,10 @@ public class RevpayApplication {
 		SpringApplication.run(RevpayApplication.class, args);
 	}
 
-	// This method runs after Spring context is ready
-	@PostConstruct
+	// Runs once the context is fully started, after other ready listeners
+	// (background jobs) have kicked off; the console blocks this thread
+	@EventListener(ApplicationReadyEvent.class)
+	@Order(Ordered.LOWEST_PRECEDENCE)
 	public void startConsoleUI() {
 		consoleApp.runApp();
 	}
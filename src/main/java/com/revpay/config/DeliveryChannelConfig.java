@@ -0,0 +1,44 @@
+package com.revpay.config;
+
+import com.revpay.service.DeliveryChannel;
+import com.revpay.service.LocalOutboxChannel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Email and SMS channels. Both are {@link LocalOutboxChannel} stand-ins until
+ * real providers are wired in; replace a bean here to switch a channel over.
+ *
+ * @since 1.1
+ */
+@Configuration
+public class DeliveryChannelConfig {
+
+    @Value("${revpay.delivery.outbox.capacity:100}")
+    private int outboxCapacity;
+
+    // Empty keeps the outbox in memory only
+    @Value("${revpay.delivery.outbox.dir:}")
+    private String outboxDir;
+
+    @Value("${revpay.delivery.outbox.failure-rate:0}")
+    private double failureRate;
+
+    @Bean
+    public DeliveryChannel emailChannel() {
+        return outbox(DeliveryChannel.EMAIL);
+    }
+
+    @Bean
+    public DeliveryChannel smsChannel() {
+        return outbox(DeliveryChannel.SMS);
+    }
+
+    private DeliveryChannel outbox(String name) {
+        Path directory = outboxDir.isBlank() ? null : Path.of(outboxDir);
+        return new LocalOutboxChannel(name, outboxCapacity, directory, failureRate);
+    }
+}
@@ -0,0 +1,32 @@
+package com.revpay.config;
+
+import com.revpay.security.CredentialHasher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * The application's single PasswordEncoder. It hashes on the shared
+ * {@link CredentialHasher} pool at the calibrated BCrypt cost, so every
+ * caller gets the same instance, pool and cost.
+ *
+ * @since 1.1
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+    @Bean
+    public PasswordEncoder passwordEncoder(CredentialHasher credentialHasher) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return credentialHasher.hash(rawPassword.toString());
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return credentialHasher.matches(rawPassword.toString(), encodedPassword);
+            }
+        };
+    }
+}
@@ -1,10 +1,16 @@
 package com.revpay.consoleui;
 
 import com.revpay.entity.Invoice;
+import com.revpay.entity.InvoiceLineItem;
+import com.revpay.entity.InvoiceSummary;
+import com.revpay.entity.Money;
 import com.revpay.entity.Notification;
 import com.revpay.entity.SecurityQuestion;
 import com.revpay.entity.User;
+import com.revpay.entity.enums.InvoiceStatus;
 import com.revpay.entity.enums.NotificationType;
+import com.revpay.repository.ProductRevenue;
+import com.revpay.service.InvoiceReportService;
 import com.revpay.service.InvoiceService;
 import com.revpay.service.NotificationService;
 import com.revpay.service.SecurityService;
@@ -13,6 +19,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Scanner;
@@ -21,6 +30,9 @@ import java.util.Set;
 @Component
 public class Consoleapp {
     private static final Logger log = LoggerFactory.getLogger(Consoleapp.class);
+    private static final int INBOX_PAGE_SIZE = 20;
+    private static final int TOP_CUSTOMERS = 5;
+    private static final int TOP_PRODUCTS = 5;
     private final Scanner scanner = new Scanner(System.in);
 
     @Autowired
@@ -28,6 +40,8 @@ public class Consoleapp {
     @Autowired
     private InvoiceService invoiceService;
     @Autowired
+    private InvoiceReportService invoiceReportService;
+    @Autowired
     private SecurityService securityService;
 
     public void displayMessage(String message) {
@@ -65,11 +79,11 @@ public class Consoleapp {
         }
     }
 
-    public double readDouble(String prompt) {
+    public Money readMoney(String prompt) {
         while (true) {
             try {
                 log.info(prompt);
-                return Double.parseDouble(scanner.nextLine());
+                return Money.parse(scanner.nextLine());
             } catch (NumberFormatException e) {
                 displayError("Invalid amount, please try again.");
             }
@@ -81,13 +95,14 @@ public class Consoleapp {
     public void notificationMenu(User user) {
         while (true) {
             int choice = readInt(
-                    "\n--- NOTIFICATIONS ---\n" +
+                    "\n--- NOTIFICATIONS (" + notificationService.getUnreadCount(user) + " unread) ---\n" +
                             "1. View All Notifications\n" +
                             "2. View Unread Notifications\n" +
-                            "3. Mark Notification as Read\n" +
+                            "3. Mark Notification(s) as Read\n" +
                             "4. Mark Notification as Unread\n" +
                             "5. View Notification Preferences\n" +
                             "6. Update Notification Preferences\n" +
+                            "7. Mark All as Read\n" +
                             "0. Back\n" +
                             "Choice: ");
 
@@ -99,7 +114,7 @@ public class Consoleapp {
                     displayNotifications(user, true);
                     break;
                 case 3:
-                    markNotificationReadUnread(user, true);
+                    markNotificationsRead(user);
                     break;
                 case 4:
                     markNotificationReadUnread(user, false);
@@ -110,6 +125,9 @@ public class Consoleapp {
                 case 6:
                     updateNotificationPreferences(user);
                     break;
+                case 7:
+                    displayMessage(notificationService.markAllRead(user) + " notification(s) marked as read.");
+                    break;
                 case 0:
                     return; // back to previous menu
                 default:
@@ -119,23 +137,56 @@ public class Consoleapp {
     }
 
     private void displayNotifications(User user, boolean onlyUnread) {
-        List<Notification> notifications = notificationService.getUserNotifications(user, onlyUnread);
-        if (notifications.isEmpty()) {
+        List<Notification> page = notificationService.getInboxPage(user, onlyUnread, null, INBOX_PAGE_SIZE);
+        if (page.isEmpty()) {
             displayMessage("No notifications found.");
             return;
         }
         displayMessage("\n--- Notifications ---");
-        for (Notification n : notifications) {
-            displayMessage("ID: " + n.getId() +
-                    " | Type: " + n.getType() +
-                    " | Message: " + n.getMessage() +
-                    " | Read: " + (n.isReadStatus() ? "Yes" : "No") +
-                    " | Date: " + n.getCreatedAt());
+        while (true) {
+            for (Notification n : page) {
+                displayMessage("ID: " + n.getId() +
+                        " | Type: " + n.getType() +
+                        " | Message: " + n.getMessage() +
+                        " | Read: " + (n.isReadStatus() ? "Yes" : "No") +
+                        " | Date: " + n.getCreatedAt());
+            }
+            if (page.size() < INBOX_PAGE_SIZE || readInt("Show more? (1=Yes, 0=No): ") != 1) {
+                return;
+            }
+            page = notificationService.getInboxPage(user, onlyUnread, page.get(page.size() - 1), INBOX_PAGE_SIZE);
+            if (page.isEmpty()) {
+                displayMessage("No more notifications.");
+                return;
+            }
+        }
+    }
+
+    private void markNotificationsRead(User user) {
+        String input = readLine("Enter Notification ID(s), comma-separated: ");
+        List<Long> ids = new ArrayList<>();
+        try {
+            for (String part : input.split(",")) {
+                if (!part.isBlank()) {
+                    ids.add(Long.parseLong(part.trim()));
+                }
+            }
+        } catch (NumberFormatException e) {
+            displayError("Invalid notification ID.");
+            return;
         }
+        if (ids.size() == 1) {
+            markNotificationReadUnread(user, ids.get(0), true);
+            return;
+        }
+        displayMessage(notificationService.markRead(user, ids) + " notification(s) marked as read.");
     }
 
     private void markNotificationReadUnread(User user, boolean markRead) {
-        Long id = readLong("Enter Notification ID: ");
+        markNotificationReadUnread(user, readLong("Enter Notification ID: "), markRead);
+    }
+
+    private void markNotificationReadUnread(User user, Long id, boolean markRead) {
         try {
             if (markRead) {
                 notificationService.markAsRead(id, user);
@@ -181,25 +232,35 @@ public class Consoleapp {
                     "\n--- INVOICE MENU ---\n" +
                             "1. Create Invoice\n" +
                             "2. View All Invoices\n" +
-                            "3. Pay Invoice\n" +
+                            "3. Mark Invoice as Paid\n" +
                             "4. Cancel Invoice\n" +
+                            "5. Invoice Dashboard\n" +
                             "0. Back to Business Menu\n" +
                             "Choice: ");
 
             switch (choice) {
                 case 1:
                     try {
-                        String customerInfo = readLine("Customer Info (Name/Contact): ");
-                        String itemizedDetails = readLine("Itemized Details (items, quantities, prices): ");
+                        String customerName = readLine("Customer Name: ");
+                        String customerInfo = readLine("Customer Contact (email/phone/address): ");
+                        List<InvoiceLineItem> lineItems = readLineItems();
+                        if (lineItems.isEmpty()) {
+                            displayError("An invoice needs at least one item.");
+                            break;
+                        }
                         String paymentTerms = readLine("Payment Terms (e.g., Net 30): ");
-                        double totalAmount = readDouble("Total Amount: ");
 
                         Invoice invoice = invoiceService.createInvoice(
-                                user, customerInfo, itemizedDetails, paymentTerms, totalAmount
+                                user, customerName, customerInfo, lineItems, paymentTerms
                         );
 
                         notificationService.notifyUser(user, "Invoice created successfully, ID: " + invoice.getId());
-                        displayMessage("Invoice created successfully with ID: " + invoice.getId());
+                        displayMessage("Invoice created successfully with ID: " + invoice.getId() +
+                                " | Total: ₹" + invoice.getTotalAmount());
+                    } catch (IllegalArgumentException e) {
+                        displayError("Invalid invoice: " + e.getMessage());
+                    } catch (ArithmeticException e) {
+                        displayError("Invalid invoice: the total amount is too large.");
                     } catch (Exception e) {
                         log.error("Failed to create invoice", e);
                         displayError("Failed to create invoice. Please try again.");
@@ -214,7 +275,8 @@ public class Consoleapp {
                         displayMessage("\n--- Your Invoices ---");
                         for (Invoice inv : invoices) {
                             displayMessage("ID: " + inv.getId() +
-                                    " | Customer: " + inv.getCustomerInfo() +
+                                    " | Customer: " + (inv.getCustomerName() != null
+                                    ? inv.getCustomerName() : inv.getCustomerInfo()) +
                                     " | Amount: ₹" + inv.getTotalAmount() +
                                     " | Status: " + inv.getStatus() +
                                     " | Created At: " + inv.getCreatedAt());
@@ -258,6 +320,10 @@ public class Consoleapp {
                     }
                     break;
 
+                case 5:
+                    showInvoiceDashboard(user);
+                    break;
+
                 case 0:
                     return;
 
@@ -266,6 +332,74 @@ public class Consoleapp {
             }
         }
     }
+
+    // Reads item lines until a blank item name
+    private List<InvoiceLineItem> readLineItems() {
+        List<InvoiceLineItem> lines = new ArrayList<>();
+        while (true) {
+            String product = readLine("Item " + (lines.size() + 1) + " name (blank to finish): ");
+            if (product.isBlank()) {
+                return lines;
+            }
+            int quantity = readInt("Quantity: ");
+            Money unitPrice = readMoney("Unit Price: ");
+            int taxBasisPoints = readTaxBasisPoints();
+            try {
+                InvoiceLineItem line = new InvoiceLineItem(product, quantity, unitPrice, taxBasisPoints);
+                lines.add(line);
+                displayMessage("Line total: ₹" + line.getLineTotal());
+            } catch (IllegalArgumentException e) {
+                displayError(e.getMessage() + " - item skipped.");
+            } catch (ArithmeticException e) {
+                displayError("Line total is too large - item skipped.");
+            }
+        }
+    }
+
+    private int readTaxBasisPoints() {
+        while (true) {
+            try {
+                BigDecimal percent = new BigDecimal(readLine("Tax % (e.g., 18 or 12.5): ").trim());
+                return percent.movePointRight(2).intValueExact();
+            } catch (NumberFormatException | ArithmeticException e) {
+                displayError("Invalid tax rate, please try again.");
+            }
+        }
+    }
+
+    private void showInvoiceDashboard(User user) {
+        InvoiceSummary summary = invoiceReportService.getSummary(user);
+        displayMessage("\n--- Invoice Dashboard ---");
+        for (InvoiceStatus status : InvoiceStatus.values()) {
+            displayMessage(status + ": " + summary.getCount(status) + " invoice(s) | ₹" + summary.getAmount(status));
+        }
+
+        displayMessage("\n--- Unpaid by Age (days) ---");
+        for (InvoiceReportService.GroupTotal bucket : invoiceReportService.getAging(user)) {
+            displayMessage(bucket.getLabel() + ": " + bucket.getInvoiceCount() + " invoice(s) | ₹" + bucket.getTotal());
+        }
+
+        List<InvoiceReportService.GroupTotal> customers = invoiceReportService.getTopCustomers(user, TOP_CUSTOMERS);
+        displayMessage("\n--- Top Customers ---");
+        if (customers.isEmpty()) {
+            displayMessage("No invoices yet.");
+        }
+        for (InvoiceReportService.GroupTotal customer : customers) {
+            displayMessage(customer.getLabel() + ": " + customer.getInvoiceCount() + " invoice(s) | ₹" + customer.getTotal());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ProductRevenue> products = invoiceReportService.getProductRevenue(user, now.minusYears(1), now, TOP_PRODUCTS);
+        displayMessage("\n--- Top Products (last 12 months) ---");
+        if (products.isEmpty()) {
+            displayMessage("No itemized invoices yet.");
+        }
+        for (ProductRevenue product : products) {
+            displayMessage(product.getProductName() + ": " + product.getQuantity() + " unit(s) | ₹" +
+                    Money.ofMinor(product.getRevenueMinor()));
+        }
+    }
+
     public void passwordRecoveryMenu(String identifier) {
         try {
             User user = securityService.findUserByEmailOrPhone(identifier);
@@ -1,6 +1,7 @@
 package com.revpay.consoleui;
 
 import com.revpay.entity.Invoice;
+import com.revpay.entity.Money;
 import com.revpay.entity.Transaction;
 import com.revpay.entity.User;
 import com.revpay.entity.enums.AccountType;
@@ -14,8 +15,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
 
 @Component
 public class Main {
@@ -28,12 +33,18 @@ public class Main {
     private final InvoiceService invoiceService;
     private final NotificationService notificationService;
     private final PaymentMethodService paymentMethodService;
+    private final BatchPayoutService batchPayoutService;
+    private final InvoiceSettlementService invoiceSettlementService;
 
 
     private final Consoleapp consoleapp;
     private static final Logger log = LoggerFactory.getLogger(Main.class);
+    private static final int HISTORY_PAGE_SIZE = 20;
 
-    public Main(SecurityService securityService, UserService userService, TransactionService transactionService, PaymentService paymentService, LoanService loanService, InvoiceService invoiceService, NotificationService notificationService, PaymentMethodService paymentMethodService, Consoleapp consoleapp) {
+    // Token from the last successful PIN check of the logged-in user
+    private String pinSessionToken;
+
+    public Main(SecurityService securityService, UserService userService, TransactionService transactionService, PaymentService paymentService, LoanService loanService, InvoiceService invoiceService, NotificationService notificationService, PaymentMethodService paymentMethodService, BatchPayoutService batchPayoutService, InvoiceSettlementService invoiceSettlementService, Consoleapp consoleapp) {
         this.securityService = securityService;
         this.userService = userService;
         this.transactionService = transactionService;
@@ -42,6 +53,8 @@ public class Main {
         this.invoiceService = invoiceService;
         this.notificationService = notificationService;
         this.paymentMethodService = paymentMethodService;
+        this.batchPayoutService = batchPayoutService;
+        this.invoiceSettlementService = invoiceSettlementService;
         this.consoleapp = consoleapp;
     }
 
@@ -81,6 +94,8 @@ public class Main {
                     } else {
                         businessMenu(loggedInUser);
                     }
+                    securityService.closePinSession(loggedInUser);
+                    pinSessionToken = null;
                     loggedInUser = null; // logout after menu
                 } catch (Exception e) {
                     log.error("Unexpected error in user menu", e);
@@ -200,7 +215,7 @@ public class Main {
             String code = securityService.generate2FACode(user);
             consoleapp.displayMessage("Your 2FA code is: " + code + " (Simulated sending)");
             notificationService.send2FACode(user, code);
-            consoleapp.displayMessage("2FA code sent to your registered email/phone.");
+            consoleapp.displayMessage("2FA code is on its way to your registered email/phone.");
 
 
             // Prompt user to enter 2FA code (3 attempts)
@@ -238,35 +253,29 @@ public class Main {
                             "6. Withdraw Money\n" +
                             "7. Manage Payment Methods\n" +
                             "8. Transaction History\n" +
-                            "9. Notifications\n" +
+                            "9. Notifications" + unreadBadge(user) + "\n" +
+                            "10. Pay Invoices\n" +
                             "0. Logout\n" +
                             "Choice: ");
 
             switch (choice) {
                 case 1:
                     if (!verifyTransactionPin(user)) break;
-                    try {
-                        double amount = consoleapp.readDouble("Amount: ");
-                        paymentService.addMoney(user, amount);
+                    Money amount = consoleapp.readMoney("Amount: ");
+                    if (runWithRetry("Add money", key -> paymentService.addMoney(user, amount, key)) != null) {
                         notificationService.notifyUser(user,"Money added");
                         consoleapp.displayMessage("Money added successfully.");
-                    } catch (Exception e) {
-                        log.error("Failed to add money", e);
-                        consoleapp.displayError("Failed to add money. Please try again.");
                     }
                     break;
 
                 case 2:
                     if (!verifyTransactionPin(user)) break;
-                    try {
-                        String receiverIdOrEmailOrPhone = consoleapp.readLine("Receiver Email or Phone: ");
-                        double amt = consoleapp.readDouble("Amount: ");
-                        transactionService.sendMoney(user, receiverIdOrEmailOrPhone, amt);
+                    String receiver = consoleapp.readLine("Receiver Email or Phone: ");
+                    Money sendAmount = consoleapp.readMoney("Amount: ");
+                    if (runWithRetry("Send money",
+                            key -> transactionService.sendMoney(user, receiver, sendAmount, key)) != null) {
                         notificationService.notifyUser(user,"Money sent");
                         consoleapp.displayMessage("Money sent successfully.");
-                    } catch (Exception e) {
-                        log.error("Failed to send money", e);
-                        consoleapp.displayError("Failed to send money. Please try again.");
                     }
                     break;
 
@@ -274,7 +283,7 @@ public class Main {
                     if (!verifyTransactionPin(user)) break;
                     try {
                         String payerIdOrEmailOrPhone = consoleapp.readLine("Payer Email or Phone: ");
-                        double amt = consoleapp.readDouble("Amount to request: ");
+                        Money amt = consoleapp.readMoney("Amount to request: ");
                         transactionService.requestMoney(user, payerIdOrEmailOrPhone, amt);
                         notificationService.notifyUser(user,"Money request sent");
                         consoleapp.displayMessage("Money request sent successfully.");
@@ -291,7 +300,7 @@ public class Main {
 
                 case 5:
                     try {
-                        consoleapp.displayMessage("Balance: ₹" + user.getWalletBalance());
+                        consoleapp.displayMessage("Balance: ₹" + paymentService.getBalance(user));
                     } catch (Exception e) {
                         log.error("Failed to get balance", e);
                         consoleapp.displayError("Failed to retrieve balance. Please try again.");
@@ -300,14 +309,11 @@ public class Main {
 
                 case 6: // ✅ Withdraw Money
                     if (!verifyTransactionPin(user)) break;
-                    try {
-                        double amount = consoleapp.readDouble("Withdraw Amount: ");
-                        transactionService.withdrawMoney(user, amount);
+                    Money withdrawAmount = consoleapp.readMoney("Withdraw Amount: ");
+                    if (runWithRetry("Withdraw",
+                            key -> transactionService.withdrawMoney(user, withdrawAmount, key)) != null) {
                         notificationService.notifyUser(user,"Money withdrawn");
                         consoleapp.displayMessage("Money withdrawn successfully.");
-                    } catch (Exception e) {
-                        log.error("Withdraw failed", e);
-                        consoleapp.displayError(e.getMessage());
                     }
                     break;
                 case 7:
@@ -321,6 +327,10 @@ public class Main {
                 case 9:
                     consoleapp.notificationMenu(user);
                     break;
+                case 10:
+                    if (!verifyTransactionPin(user)) break;
+                    payInvoices(user);
+                    break;
 
                 case 0:
                     consoleapp.displayMessage("Logged out");
@@ -345,35 +355,30 @@ public class Main {
                             "7. Withdraw Money\n" +
                             "8. Manage Payment Methods\n" +
                             "9. Transaction History\n" +
-                            "10. Notifications\n" +
+                            "10. Notifications" + unreadBadge(user) + "\n" +
+                            "11. Bulk Payout (CSV)\n" +
+                            "12. Pay Invoices\n" +
                             "0. Logout\n" +
                             "Choice: ");
 
             switch (choice) {
                 case 1:
                     if (!verifyTransactionPin(user)) break;
-                    try {
-                        double amount = consoleapp.readDouble("Amount: ");
-                        paymentService.addMoney(user, amount);
+                    Money amount = consoleapp.readMoney("Amount: ");
+                    if (runWithRetry("Add money", key -> paymentService.addMoney(user, amount, key)) != null) {
                         notificationService.notifyUser(user,"Money added");
                         consoleapp.displayMessage("Money added successfully.");
-                    } catch (Exception e) {
-                        log.error("Failed to add money", e);
-                        consoleapp.displayError("Failed to add money. Please try again.");
                     }
                     break;
 
                 case 2:
                     if (!verifyTransactionPin(user)) break;
-                    try {
-                        String receiverIdOrEmailOrPhone = consoleapp.readLine("Receiver Email or Phone: ");
-                        double amt = consoleapp.readDouble("Amount: ");
-                        transactionService.sendMoney(user, receiverIdOrEmailOrPhone, amt);
+                    String receiver = consoleapp.readLine("Receiver Email or Phone: ");
+                    Money sendAmount = consoleapp.readMoney("Amount: ");
+                    if (runWithRetry("Send money",
+                            key -> transactionService.sendMoney(user, receiver, sendAmount, key)) != null) {
                         notificationService.notifyUser(user,"Money sent");
                         consoleapp.displayMessage("Money sent successfully.");
-                    } catch (Exception e) {
-                        log.error("Failed to send money", e);
-                        consoleapp.displayError("Failed to send money. Please try again.");
                     }
                     break;
 
@@ -381,7 +386,7 @@ public class Main {
                     if (!verifyTransactionPin(user)) break;
                     try {
                         String payerIdOrEmailOrPhone = consoleapp.readLine("Payer Email or Phone: ");
-                        double amt = consoleapp.readDouble("Amount to request: ");
+                        Money amt = consoleapp.readMoney("Amount to request: ");
                         transactionService.requestMoney(user, payerIdOrEmailOrPhone, amt);
                         notificationService.notifyUser(user,"Money request sent");
                         consoleapp.displayMessage("Money request sent successfully.");
@@ -399,7 +404,7 @@ public class Main {
                 case 5:
                     if (!verifyTransactionPin(user)) break;
                     try {
-                        double loanAmount = consoleapp.readDouble("Loan Amount: ");
+                        Money loanAmount = consoleapp.readMoney("Loan Amount: ");
                         loanService.applyLoan(user.getId(), loanAmount);
                         notificationService.notifyUser(user,"Loan application submitted");
                         consoleapp.displayMessage("Loan application submitted successfully.");
@@ -416,14 +421,11 @@ public class Main {
 
                 case 7: // ✅ Withdraw Money
                     if (!verifyTransactionPin(user)) break;
-                    try {
-                        double amount = consoleapp.readDouble("Withdraw Amount: ");
-                        transactionService.withdrawMoney(user, amount);
+                    Money withdrawAmount = consoleapp.readMoney("Withdraw Amount: ");
+                    if (runWithRetry("Withdraw",
+                            key -> transactionService.withdrawMoney(user, withdrawAmount, key)) != null) {
                         notificationService.notifyUser(user,"Money withdrawn");
                         consoleapp.displayMessage("Money withdrawn successfully.");
-                    } catch (Exception e) {
-                        log.error("Withdraw failed", e);
-                        consoleapp.displayError(e.getMessage());
                     }
                     break;
                 case 8:
@@ -437,6 +439,14 @@ public class Main {
                 case 10:
                     consoleapp.notificationMenu(user);
                     break;
+                case 11:
+                    if (!verifyTransactionPin(user)) break;
+                    bulkPayout(user);
+                    break;
+                case 12:
+                    if (!verifyTransactionPin(user)) break;
+                    payInvoices(user);
+                    break;
 
                 case 0:
                     consoleapp.displayMessage("Logged out");
@@ -448,11 +458,42 @@ public class Main {
         }
     }
 
+    /*
+     * Runs one user-initiated money movement under a single idempotency key.
+     * A failed attempt can be retried with the same key, so an attempt that
+     * did commit (say, the reply was lost) is replayed instead of repeated.
+     * The key is dropped once the movement succeeds or the user cancels.
+     */
+    private Transaction runWithRetry(String action, Function<String, Transaction> movement) {
+        String idempotencyKey = UUID.randomUUID().toString();
+        while (true) {
+            try {
+                return movement.apply(idempotencyKey);
+            } catch (Exception e) {
+                log.error(action + " failed", e);
+                consoleapp.displayError(action + " failed: " + e.getMessage());
+                String retry = consoleapp.readLine("Retry? (y/n): ");
+                if (!retry.trim().equalsIgnoreCase("y")) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    private String unreadBadge(User user) {
+        long unread = notificationService.getUnreadCount(user);
+        return unread > 0 ? " (" + unread + " unread)" : "";
+    }
+
     private boolean verifyTransactionPin(User user) {
+        if (securityService.hasValidPinSession(user, pinSessionToken)) {
+            return true;
+        }
         for (int attempt = 1; attempt <= 3; attempt++) {
             String inputPin = consoleapp.readLine("Enter your 4-digit transaction PIN: ");
             try {
-                if (securityService.verifyPin(user, inputPin)) {
+                pinSessionToken = securityService.openPinSession(user, inputPin);
+                if (pinSessionToken != null) {
                     return true;
                 } else {
                     consoleapp.displayError("Invalid PIN. Please try again.");
@@ -509,13 +550,10 @@ public class Main {
             switch (action) {
                 case 1:
                     if (!verifyTransactionPin(user)) break;
-                    try {
-                        transactionService.acceptRequest(selectedRequest.getId(), user);
+                    if (runWithRetry("Accept request",
+                            key -> transactionService.acceptRequest(selectedRequest.getId(), user, key)) != null) {
                         notificationService.notifyUser(user,"Money request accepted");
                         consoleapp.displayMessage("Request accepted successfully.");
-                    } catch (Exception e) {
-                        log.error("Failed to accept request", e);
-                        consoleapp.displayError("Failed to accept request: " + e.getMessage());
                     }
                     break;
 
@@ -618,6 +656,79 @@ public class Main {
         }
     }
 
+    private void bulkPayout(User user) {
+        try {
+            String path = consoleapp.readLine("CSV file (recipient,amount,note per line): ");
+            List<BatchPayoutService.LineResult> results =
+                    batchPayoutService.payoutFromCsv(user, Path.of(path.trim()));
+
+            long paid = results.stream()
+                    .filter(r -> r.getStatus() == TransactionStatus.COMPLETED)
+                    .count();
+            results.stream()
+                    .filter(r -> r.getStatus() != TransactionStatus.COMPLETED)
+                    .forEach(r -> consoleapp.displayError("Line " + r.getLine().getLineNumber() +
+                            " (" + r.getLine().getRecipient() + "): " + r.getMessage()));
+
+            notificationService.notifyUser(user, "Bulk payout: " + paid + " of " + results.size() + " lines paid");
+            consoleapp.displayMessage("Bulk payout complete: " + paid + " of " + results.size() + " lines paid.");
+        } catch (Exception e) {
+            log.error("Bulk payout failed", e);
+            consoleapp.displayError("Bulk payout failed: " + e.getMessage());
+        }
+    }
+
+    // One id settles directly; several go through bulk settlement
+    private void payInvoices(User user) {
+        String input = consoleapp.readLine("Invoice ID(s) to pay, comma-separated: ");
+        List<Long> invoiceIds = new ArrayList<>();
+        try {
+            for (String part : input.split(",")) {
+                if (!part.isBlank()) {
+                    invoiceIds.add(Long.parseLong(part.trim()));
+                }
+            }
+        } catch (NumberFormatException e) {
+            consoleapp.displayError("Invalid invoice ID format.");
+            return;
+        }
+        if (invoiceIds.isEmpty()) {
+            consoleapp.displayError("No invoice IDs entered.");
+            return;
+        }
+
+        if (invoiceIds.size() == 1) {
+            try {
+                Transaction tx = invoiceSettlementService.settle(invoiceIds.get(0), user);
+                notificationService.notifyUser(user, "Invoice ID " + invoiceIds.get(0) + " paid: ₹" + tx.getAmount());
+                consoleapp.displayMessage("Invoice paid successfully. Transaction ID: " + tx.getId());
+            } catch (InvoiceSettlementException | InsufficientBalanceException e) {
+                consoleapp.displayError("Payment failed: " + e.getMessage());
+            } catch (Exception e) {
+                log.error("Failed to pay invoice", e);
+                consoleapp.displayError("Failed to pay invoice. Please try again.");
+            }
+            return;
+        }
+
+        try {
+            List<InvoiceSettlementService.SettlementResult> results =
+                    invoiceSettlementService.settleAll(user, invoiceIds);
+            long paid = results.stream()
+                    .filter(r -> r.getStatus() == TransactionStatus.COMPLETED)
+                    .count();
+            results.stream()
+                    .filter(r -> r.getStatus() != TransactionStatus.COMPLETED)
+                    .forEach(r -> consoleapp.displayError("Invoice " + r.getInvoiceId() + ": " + r.getMessage()));
+
+            notificationService.notifyUser(user, "Invoice payment: " + paid + " of " + results.size() + " invoices paid");
+            consoleapp.displayMessage("Invoice payment complete: " + paid + " of " + results.size() + " invoices paid.");
+        } catch (Exception e) {
+            log.error("Bulk invoice payment failed", e);
+            consoleapp.displayError("Invoice payment failed: " + e.getMessage());
+        }
+    }
+
     private void transactionHistoryMenu(User user) {
 
         LocalDate fromDate = null;
@@ -655,13 +766,20 @@ public class Main {
                     break;
 
                 case 3:
-                    List<Transaction> txs =
-                            transactionService.getTransactionHistory(
-                                    user, fromDate, toDate, type, status, search);
+                    Transaction lastSeen = null;
+                    while (true) {
+                        List<Transaction> txs =
+                                transactionService.getTransactionHistoryPage(
+                                        user, fromDate, toDate, type, status, search,
+                                        lastSeen, HISTORY_PAGE_SIZE);
+
+                        if (txs.isEmpty()) {
+                            consoleapp.displayMessage(lastSeen == null
+                                    ? "No transactions found."
+                                    : "No more transactions.");
+                            break;
+                        }
 
-                    if (txs.isEmpty()) {
-                        consoleapp.displayMessage("No transactions found.");
-                    } else {
                         txs.forEach(tx -> consoleapp.displayMessage(
                                 tx.getCreatedAt() + " | " +
                                         tx.getTransactionType() + " | " +
@@ -669,17 +787,21 @@ public class Main {
                                         tx.getStatus() + " | " +
                                         (tx.getNote() != null ? tx.getNote() : "")
                         ));
+
+                        if (txs.size() < HISTORY_PAGE_SIZE ||
+                                consoleapp.readInt("Show more? (1=Yes, 0=No): ") != 1) {
+                            break;
+                        }
+                        lastSeen = txs.get(txs.size() - 1);
                     }
                     break;
 
                 case 4:
-                    String path = consoleapp.readLine("Enter file name (example: txns.csv): ");
-                    List<Transaction> exportTxs =
-                            transactionService.getTransactionHistory(
-                                    user, fromDate, toDate, type, status, search);
-
-                    transactionService.exportTransactionHistory(exportTxs, path);
-                    consoleapp.displayMessage("Transaction history exported successfully.");
+                    String path = consoleapp.readLine("Enter file name (example: txns.csv or txns.csv.gz): ");
+                    long exported = transactionService.exportTransactionHistory(
+                            user, fromDate, toDate, type, status, search,
+                            path, path.endsWith(".gz"));
+                    consoleapp.displayMessage("Transaction history exported successfully (" + exported + " rows).");
                     break;
 
                 case 0:
@@ -0,0 +1,79 @@
+package com.revpay.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Remembers which transaction a client-supplied idempotency key produced,
+ * so a retried money movement returns the original result.
+ *
+ * @since 1.1
+ */
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+
+    // Client key is the primary key: a concurrent retry blocks on, then fails, the insert
+    @Id
+    @Column(name = "idempotency_key", length = 64)
+    private String key;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 32)
+    private String operation;
+
+    // SHA-256 of the request's amount and counterparty; a reused key must match it
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    // Set in the same DB transaction that claimed the key, so committed rows always have it
+    private Long transactionId;
+
+    private LocalDateTime createdAt;
+
+    protected IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String key, Long userId, String operation, String requestHash) {
+        this.key = key;
+        this.userId = userId;
+        this.operation = operation;
+        this.requestHash = requestHash;
+    }
+
+    @PrePersist
+    public void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -6,7 +6,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+        @Index(name = "idx_invoices_business_status_created", columnList = "business_user_id, status, created_at"),
+        @Index(name = "idx_invoices_business_customer", columnList = "business_user_id, customer_name")
+})
 public class Invoice {
 
     @Id
@@ -17,6 +20,9 @@ public class Invoice {
     @JoinColumn(name = "business_user_id", nullable = false)
     private User businessUser;
 
+    @Column(name = "customer_name")
+    private String customerName;
+
     @Column(columnDefinition = "TEXT")
     private String customerInfo;
 
@@ -25,13 +31,28 @@ public class Invoice {
 
     private String paymentTerms;
 
-    private Double totalAmount;
+    private Money totalAmount;
 
     @Enumerated(EnumType.STRING)
     private InvoiceStatus status;
 
     private LocalDateTime createdAt;
 
+    // Guards settlement, payment and cancellation against concurrent changes
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "paid_by_user_id")
+    private User paidBy;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "payment_transaction_id")
+    private Transaction paymentTransaction;
+
+    private LocalDateTime paidAt;
+
     @PrePersist
     public void onCreate() {
         createdAt = LocalDateTime.now();
@@ -55,6 +76,14 @@ public class Invoice {
         this.businessUser = businessUser;
     }
 
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public void setCustomerName(String customerName) {
+        this.customerName = customerName;
+    }
+
     public String getCustomerInfo() {
         return customerInfo;
     }
@@ -79,11 +108,11 @@ public class Invoice {
         this.paymentTerms = paymentTerms;
     }
 
-    public Double getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(Double totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -102,4 +131,32 @@ public class Invoice {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public User getPaidBy() {
+        return paidBy;
+    }
+
+    public void setPaidBy(User paidBy) {
+        this.paidBy = paidBy;
+    }
+
+    public Transaction getPaymentTransaction() {
+        return paymentTransaction;
+    }
+
+    public void setPaymentTransaction(Transaction paymentTransaction) {
+        this.paymentTransaction = paymentTransaction;
+    }
+
+    public LocalDateTime getPaidAt() {
+        return paidAt;
+    }
+
+    public void setPaidAt(LocalDateTime paidAt) {
+        this.paidAt = paidAt;
+    }
 }
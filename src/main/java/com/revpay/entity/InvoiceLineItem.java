@@ -0,0 +1,134 @@
+package com.revpay.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of an invoice: a product, quantity, unit price and tax rate.
+ *
+ * The tax and line total are computed from the other fields, never entered.
+ * The business and invoice creation time are copied from the invoice so
+ * per-product revenue over a date range is a range scan on this table alone.
+ *
+ * @since 1.1
+ */
+@Entity
+@Table(name = "invoice_line_items", indexes = {
+        @Index(name = "idx_line_items_invoice", columnList = "invoice_id"),
+        @Index(name = "idx_line_items_business_product_created",
+                columnList = "business_user_id, product_name, created_at")
+})
+public class InvoiceLineItem {
+
+    public static final int MAX_TAX_BASIS_POINTS = 10_000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "invoice_id", nullable = false)
+    private Invoice invoice;
+
+    @Column(name = "business_user_id", nullable = false)
+    private Long businessUserId;
+
+    @Column(name = "product_name", nullable = false, length = 128)
+    private String productName;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private Money unitPrice;
+
+    // 1800 = 18%
+    @Column(nullable = false)
+    private int taxBasisPoints;
+
+    @Column(nullable = false)
+    private Money taxAmount;
+
+    @Column(nullable = false)
+    private Money lineTotal;
+
+    private LocalDateTime createdAt;
+
+    protected InvoiceLineItem() {
+    }
+
+    /**
+     * A line not yet attached to an invoice; tax and total are computed here.
+     *
+     * @throws IllegalArgumentException if a field is missing or out of range
+     */
+    public InvoiceLineItem(String productName, int quantity, Money unitPrice, int taxBasisPoints) {
+        if (productName == null || productName.isBlank() || productName.trim().length() > 128) {
+            throw new IllegalArgumentException("Product name must be 1 to 128 characters");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (unitPrice == null || unitPrice.isNegative()) {
+            throw new IllegalArgumentException("Unit price cannot be negative");
+        }
+        if (taxBasisPoints < 0 || taxBasisPoints > MAX_TAX_BASIS_POINTS) {
+            throw new IllegalArgumentException("Tax rate must be between 0% and 100%");
+        }
+        this.productName = productName.trim();
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.taxBasisPoints = taxBasisPoints;
+        Money net = unitPrice.times(quantity);
+        this.taxAmount = net.basisPoints(taxBasisPoints);
+        this.lineTotal = net.plus(taxAmount);
+    }
+
+    // Called once the invoice has its id and creation time
+    public void attachTo(Invoice invoice) {
+        this.invoice = invoice;
+        this.businessUserId = invoice.getBusinessUser().getId();
+        this.createdAt = invoice.getCreatedAt();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Invoice getInvoice() {
+        return invoice;
+    }
+
+    public Long getBusinessUserId() {
+        return businessUserId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public Money getUnitPrice() {
+        return unitPrice;
+    }
+
+    public int getTaxBasisPoints() {
+        return taxBasisPoints;
+    }
+
+    public Money getTaxAmount() {
+        return taxAmount;
+    }
+
+    public Money getLineTotal() {
+        return lineTotal;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
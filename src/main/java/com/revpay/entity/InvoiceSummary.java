@@ -0,0 +1,99 @@
+package com.revpay.entity;
+
+import com.revpay.entity.enums.InvoiceStatus;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-business invoice counts and totals by status, kept up to date as
+ * invoices are created, paid and cancelled, so the invoice dashboard reads
+ * one row instead of aggregating the business's invoices.
+ *
+ * @since 1.1
+ */
+@Entity
+@Table(name = "invoice_summaries")
+public class InvoiceSummary {
+
+    @Id
+    @Column(name = "business_user_id")
+    private Long businessUserId;
+
+    @Column(nullable = false)
+    private long unpaidCount;
+
+    @Column(nullable = false)
+    private Money unpaidAmount = Money.ZERO;
+
+    @Column(nullable = false)
+    private long paidCount;
+
+    @Column(nullable = false)
+    private Money paidAmount = Money.ZERO;
+
+    @Column(nullable = false)
+    private long cancelledCount;
+
+    @Column(nullable = false)
+    private Money cancelledAmount = Money.ZERO;
+
+    private LocalDateTime updatedAt;
+
+    protected InvoiceSummary() {
+    }
+
+    public Long getBusinessUserId() {
+        return businessUserId;
+    }
+
+    public long getCount(InvoiceStatus status) {
+        switch (status) {
+            case UNPAID:
+                return unpaidCount;
+            case PAID:
+                return paidCount;
+            default:
+                return cancelledCount;
+        }
+    }
+
+    public Money getAmount(InvoiceStatus status) {
+        switch (status) {
+            case UNPAID:
+                return unpaidAmount;
+            case PAID:
+                return paidAmount;
+            default:
+                return cancelledAmount;
+        }
+    }
+
+    public long getUnpaidCount() {
+        return unpaidCount;
+    }
+
+    public Money getUnpaidAmount() {
+        return unpaidAmount;
+    }
+
+    public long getPaidCount() {
+        return paidCount;
+    }
+
+    public Money getPaidAmount() {
+        return paidAmount;
+    }
+
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+
+    public Money getCancelledAmount() {
+        return cancelledAmount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,76 @@
+package com.revpay.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a payment-method re-encryption run, so an interrupted run
+ * resumes after the last committed id range.
+ *
+ * @since 1.1
+ */
+@Entity
+@Table(name = "key_rotation_checkpoints")
+public class KeyRotationCheckpoint {
+
+    // One row per target key version, e.g. "payment_methods:v2"
+    @Id
+    @Column(length = 64)
+    private String jobName;
+
+    @Column(nullable = false)
+    private long lastId;
+
+    @Column(nullable = false)
+    private long rowsRotated;
+
+    private boolean completed;
+
+    private LocalDateTime updatedAt;
+
+    protected KeyRotationCheckpoint() {
+    }
+
+    public KeyRotationCheckpoint(String jobName) {
+        this.jobName = jobName;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public void setLastId(long lastId) {
+        this.lastId = lastId;
+    }
+
+    public long getRowsRotated() {
+        return rowsRotated;
+    }
+
+    public void setRowsRotated(long rowsRotated) {
+        this.rowsRotated = rowsRotated;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,102 @@
+package com.revpay.entity;
+
+import com.revpay.entity.enums.LedgerEntryType;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * One immutable debit or credit against a wallet. Entries are only ever
+ * inserted; {@code sequence} increases by one per wallet with no gaps, so
+ * replaying a wallet's entries in sequence order reproduces its balance.
+ *
+ * @since 1.1
+ */
+@Entity
+@Immutable
+@Table(name = "ledger_entries", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ledger_entries_user_sequence", columnNames = {"user_id", "sequence"})
+})
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Plain id rather than @ManyToOne: audit scans never need the User row
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
+    @Column(nullable = false, updatable = false)
+    private long sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private LedgerEntryType entryType;
+
+    @Column(nullable = false, updatable = false)
+    private Money amount;
+
+    @Column(nullable = false, updatable = false)
+    private Money balanceAfter;
+
+    // Null for the opening entry that carries over a pre-ledger balance
+    @Column(name = "transaction_id", updatable = false)
+    private Long transactionId;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    protected LedgerEntry() {
+    }
+
+    public LedgerEntry(Long userId, long sequence, LedgerEntryType entryType,
+                       Money amount, Money balanceAfter, Long transactionId) {
+        this.userId = userId;
+        this.sequence = sequence;
+        this.entryType = entryType;
+        this.amount = amount;
+        this.balanceAfter = balanceAfter;
+        this.transactionId = transactionId;
+    }
+
+    @PrePersist
+    public void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Getters only: entries are immutable
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public LedgerEntryType getEntryType() {
+        return entryType;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public Money getBalanceAfter() {
+        return balanceAfter;
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -18,7 +18,7 @@ public class LoanApplication {
     private User businessUser;
 
     @Column(nullable = false)
-    private Double loanAmount;
+    private Money loanAmount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -60,11 +60,11 @@ public class LoanApplication {
         this.businessUser = businessUser;
     }
 
-    public Double getLoanAmount() {
+    public Money getLoanAmount() {
         return loanAmount;
     }
 
-    public void setLoanAmount(Double loanAmount) {
+    public void setLoanAmount(Money loanAmount) {
         this.loanAmount = loanAmount;
     }
 
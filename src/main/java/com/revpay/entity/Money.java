@@ -0,0 +1,168 @@
+package com.revpay.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * Exact monetary amount held as a count of minor units (paise for INR).
+ *
+ * All arithmetic is plain {@code long} math with overflow checks, so
+ * balances never drift the way the old {@code Double} fields did.
+ * Instances are immutable.
+ *
+ * @since 1.1
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("INR");
+
+    public static final Money ZERO = new Money(0L, DEFAULT_CURRENCY);
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    /**
+     * Creates an amount in the default currency from minor units.
+     *
+     * @param minorUnits amount in minor units (e.g. 1050 = 10.50)
+     * @return the amount
+     * @since 1.1
+     */
+    public static Money ofMinor(long minorUnits) {
+        return ofMinor(minorUnits, DEFAULT_CURRENCY);
+    }
+
+    /**
+     * Creates an amount from minor units.
+     *
+     * @param minorUnits amount in minor units
+     * @param currency   currency of the amount
+     * @return the amount
+     * @since 1.1
+     */
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        Objects.requireNonNull(currency, "currency");
+        if (minorUnits == 0L && DEFAULT_CURRENCY.equals(currency)) {
+            return ZERO;
+        }
+        return new Money(minorUnits, currency);
+    }
+
+    /**
+     * Parses user input such as {@code "250"} or {@code "99.95"} in the default currency.
+     *
+     * @param text decimal amount
+     * @return the amount
+     * @throws NumberFormatException if the text is not a number or has more
+     *                               decimals than the currency allows
+     * @since 1.1
+     */
+    public static Money parse(String text) {
+        if (text == null) {
+            throw new NumberFormatException("Amount is required");
+        }
+        BigDecimal value = new BigDecimal(text.trim());
+        int digits = DEFAULT_CURRENCY.getDefaultFractionDigits();
+        if (value.stripTrailingZeros().scale() > digits) {
+            throw new NumberFormatException("Amount can have at most " + digits + " decimal places");
+        }
+        try {
+            return ofMinor(value.movePointRight(digits).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount is too large");
+        }
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public Money plus(Money other) {
+        checkCurrency(other);
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        checkCurrency(other);
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long factor) {
+        return ofMinor(Math.multiplyExact(minorUnits, factor), currency);
+    }
+
+    /**
+     * Share of this amount in basis points (1/100 of a percent), rounded half-up
+     * to the nearest minor unit; e.g. 1800 bp of 100.00 is 18.00.
+     *
+     * @since 1.1
+     */
+    public Money basisPoints(int basisPoints) {
+        long share = BigDecimal.valueOf(minorUnits)
+                .multiply(BigDecimal.valueOf(basisPoints))
+                .divide(BigDecimal.valueOf(10_000), 0, RoundingMode.HALF_UP)
+                .longValueExact();
+        return ofMinor(share, currency);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return compareTo(other) < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    private void checkCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException(
+                    "Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money other = (Money) o;
+        return minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+
+    /**
+     * Plain decimal form, e.g. {@code 1250.50}; used for display and CSV export.
+     */
+    @Override
+    public String toString() {
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits()).toPlainString();
+    }
+}
@@ -0,0 +1,29 @@
+package com.revpay.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link Money} as a BIGINT count of minor units in the default currency.
+ *
+ * @since 1.1
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Money money) {
+        if (money == null) {
+            return null;
+        }
+        if (!Money.DEFAULT_CURRENCY.equals(money.getCurrency())) {
+            throw new IllegalArgumentException("Only " + Money.DEFAULT_CURRENCY + " amounts can be stored");
+        }
+        return money.getMinorUnits();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(Long minorUnits) {
+        return minorUnits == null ? null : Money.ofMinor(minorUnits);
+    }
+}
@@ -6,7 +6,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user_read_created", columnList = "user_id, read_status, created_at"),
+        @Index(name = "idx_notifications_read_created", columnList = "read_status, created_at")
+})
 public class Notification {
 
     @Id
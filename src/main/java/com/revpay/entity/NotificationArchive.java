@@ -0,0 +1,64 @@
+package com.revpay.entity;
+
+import com.revpay.entity.enums.NotificationType;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A read notification moved out of the live notifications table by
+ * {@link com.revpay.service.NotificationRetentionJob}. Rows keep their
+ * original id and are written only by that job.
+ *
+ * @since 1.1
+ */
+@Entity
+@Table(name = "notifications_archive", indexes = {
+        @Index(name = "idx_notifications_archive_user_created", columnList = "user_id, created_at")
+})
+public class NotificationArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    private NotificationType type;
+
+    @Column(columnDefinition = "TEXT")
+    private String message;
+
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    protected NotificationArchive() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public NotificationType getType() {
+        return type;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,89 @@
+package com.revpay.entity;
+
+import com.revpay.entity.enums.NotificationType;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A user's enabled notification types, one bit per {@link NotificationType}
+ * ordinal. Users without a row get {@link #DEFAULT_MASK}.
+ *
+ * New notification types must be appended to the enum so existing masks keep
+ * their meaning.
+ *
+ * @since 1.1
+ */
+@Entity
+@Table(name = "notification_preferences")
+public class NotificationPreference {
+
+    /** Every type except PREFERENCE, which is not a deliverable notification. */
+    public static final int DEFAULT_MASK = toMask(EnumSet.complementOf(EnumSet.of(NotificationType.PREFERENCE)));
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private int enabledMask;
+
+    private LocalDateTime updatedAt;
+
+    protected NotificationPreference() {
+    }
+
+    public NotificationPreference(Long userId, int enabledMask) {
+        this.userId = userId;
+        this.enabledMask = enabledMask;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public static int bit(NotificationType type) {
+        return 1 << type.ordinal();
+    }
+
+    // PREFERENCE is never stored as enabled
+    public static int toMask(Set<NotificationType> types) {
+        int mask = 0;
+        for (NotificationType type : types) {
+            if (type != NotificationType.PREFERENCE) {
+                mask |= bit(type);
+            }
+        }
+        return mask;
+    }
+
+    public static EnumSet<NotificationType> toTypes(int mask) {
+        EnumSet<NotificationType> types = EnumSet.noneOf(NotificationType.class);
+        for (NotificationType type : NotificationType.values()) {
+            if ((mask & bit(type)) != 0) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public int getEnabledMask() {
+        return enabledMask;
+    }
+
+    public void setEnabledMask(int enabledMask) {
+        this.enabledMask = enabledMask;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -7,7 +7,11 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        // InnoDB appends the primary key, so these also serve the (created_at, id) keyset
+        @Index(name = "idx_transactions_sender_created", columnList = "sender_id, created_at"),
+        @Index(name = "idx_transactions_receiver_created", columnList = "receiver_id, created_at")
+})
 public class Transaction {
 
     @Id
@@ -23,7 +27,7 @@ public class Transaction {
     private User receiver;
 
     @Column(nullable = false)
-    private Double amount;
+    private Money amount;
 
     @Enumerated(EnumType.STRING)
     private TransactionType transactionType;
@@ -33,17 +37,13 @@ public class Transaction {
 
     private String note;
 
+    @Column(updatable = false)
     private LocalDateTime createdAt;
 
     @PrePersist
     public void prePersist() {
         createdAt = LocalDateTime.now();
     }
-
-    @PreUpdate
-    public void preUpdate() {
-        createdAt = LocalDateTime.now();
-    }
     // Getters and Setters
 
     public Long getId() {
@@ -70,11 +70,11 @@ public class Transaction {
         this.receiver = receiver;
     }
 
-    public Double getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(Double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -35,13 +35,16 @@ public class User {
 
     // Wallet
     @Column(nullable = false)
-    private Double walletBalance = 0.0;
+    private Money walletBalance = Money.ZERO;
 
     // Security
     private int failedLoginAttempts = 0;
 
     private boolean accountLocked = false;
 
+    // End of a temporary lockout; null with accountLocked means locked until reset
+    private LocalDateTime lockedUntil;
+
     private LocalDateTime lastLogin;
 
     // Business-specific fields
@@ -141,11 +144,11 @@ public class User {
         this.accountType = accountType;
     }
 
-    public Double getWalletBalance() {
+    public Money getWalletBalance() {
         return walletBalance;
     }
 
-    public void setWalletBalance(Double walletBalance) {
+    public void setWalletBalance(Money walletBalance) {
         this.walletBalance = walletBalance;
     }
 
@@ -165,6 +168,14 @@ public class User {
         this.accountLocked = accountLocked;
     }
 
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(LocalDateTime lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
     public LocalDateTime getLastLogin() {
         return lastLogin;
     }
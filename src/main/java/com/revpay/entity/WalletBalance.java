@@ -0,0 +1,66 @@
+package com.revpay.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Materialized balance of a wallet, advanced incrementally with every
+ * {@link LedgerEntry} so balance reads are a primary-key lookup.
+ *
+ * @since 1.1
+ */
+@Entity
+@Table(name = "wallet_balances")
+public class WalletBalance {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private Money balance = Money.ZERO;
+
+    // Sequence of the last entry folded into this snapshot
+    @Column(nullable = false)
+    private long lastSequence;
+
+    private LocalDateTime updatedAt;
+
+    protected WalletBalance() {
+    }
+
+    public WalletBalance(Long userId) {
+        this.userId = userId;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    public void setBalance(Money balance) {
+        this.balance = balance;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
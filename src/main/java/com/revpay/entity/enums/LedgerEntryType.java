@@ -0,0 +1,6 @@
+package com.revpay.entity.enums;
+
+public enum LedgerEntryType {
+    DEBIT,
+    CREDIT
+}
@@ -5,5 +5,6 @@ public enum TransactionType {
     REQUEST,
     ADD_FUNDS,
     WITHDRAW,
-    RECIEVE
+    RECIEVE,
+    INVOICE_PAYMENT
 }
@@ -0,0 +1,7 @@
+package com.revpay.exception;
+
+public class InvoiceSettlementException extends RuntimeException {
+    public InvoiceSettlementException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,7 @@
+package com.revpay.repository;
+
+import com.revpay.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+}
@@ -0,0 +1,16 @@
+package com.revpay.repository;
+
+/**
+ * One row of a grouped invoice aggregate: the group label (status, aging
+ * bucket or customer), how many invoices fall in it and their total in minor units.
+ *
+ * @since 1.1
+ */
+public interface InvoiceGroupTotal {
+
+    String getLabel();
+
+    long getInvoiceCount();
+
+    long getTotalMinor();
+}
@@ -0,0 +1,43 @@
+package com.revpay.repository;
+
+import com.revpay.entity.InvoiceLineItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface InvoiceLineItemRepository extends JpaRepository<InvoiceLineItem, Long> {
+
+    // Served from idx_line_items_invoice
+    List<InvoiceLineItem> findByInvoiceIdOrderById(Long invoiceId);
+
+    // Range scan on idx_line_items_business_product_created; cancelled invoices are excluded by id
+    @Query(value = "select l.product_name as productName, sum(l.quantity) as quantity, count(*) as lineCount, " +
+            "sum(l.line_total) as revenueMinor from invoice_line_items l " +
+            "where l.business_user_id = :businessUserId and l.created_at >= :from and l.created_at < :to " +
+            "and l.invoice_id not in (select i.id from invoices i " +
+            "    where i.business_user_id = :businessUserId and i.status = 'CANCELLED') " +
+            "group by l.product_name order by revenueMinor desc limit :limit", nativeQuery = true)
+    List<ProductRevenue> sumRevenueByProduct(
+            @Param("businessUserId") Long businessUserId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("limit") int limit
+    );
+
+    @Query(value = "select l.product_name as productName, coalesce(sum(l.quantity), 0) as quantity, " +
+            "count(*) as lineCount, coalesce(sum(l.line_total), 0) as revenueMinor from invoice_line_items l " +
+            "where l.business_user_id = :businessUserId and l.product_name = :productName " +
+            "and l.created_at >= :from and l.created_at < :to " +
+            "and l.invoice_id not in (select i.id from invoices i " +
+            "    where i.business_user_id = :businessUserId and i.status = 'CANCELLED') " +
+            "group by l.product_name", nativeQuery = true)
+    List<ProductRevenue> sumRevenueForProduct(
+            @Param("businessUserId") Long businessUserId,
+            @Param("productName") String productName,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+}
@@ -4,7 +4,10 @@ import com.revpay.entity.Invoice;
 import com.revpay.entity.User;
 import com.revpay.entity.enums.InvoiceStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
@@ -12,4 +15,31 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     List<Invoice> findByBusinessUser(User businessUser);
 
     List<Invoice> findByBusinessUserAndStatus(User businessUser, InvoiceStatus status);
+
+    // Report aggregates below run on idx_invoices_business_status_created without loading invoices
+
+    @Query(value = "select status as label, count(*) as invoiceCount, coalesce(sum(total_amount), 0) as totalMinor " +
+            "from invoices where business_user_id = :businessUserId group by status", nativeQuery = true)
+    List<InvoiceGroupTotal> sumByStatus(@Param("businessUserId") Long businessUserId);
+
+    // Unpaid invoices by age; each bound is the oldest created_at still inside the bucket
+    @Query(value = "select case when created_at >= :within30 then '0-30' " +
+            "when created_at >= :within60 then '31-60' " +
+            "when created_at >= :within90 then '61-90' else '90+' end as label, " +
+            "count(*) as invoiceCount, coalesce(sum(total_amount), 0) as totalMinor " +
+            "from invoices where business_user_id = :businessUserId and status = 'UNPAID' " +
+            "group by label", nativeQuery = true)
+    List<InvoiceGroupTotal> sumUnpaidByAge(
+            @Param("businessUserId") Long businessUserId,
+            @Param("within30") LocalDateTime within30,
+            @Param("within60") LocalDateTime within60,
+            @Param("within90") LocalDateTime within90
+    );
+
+    // Invoices from before customer_name existed fall back to their customer_info text
+    @Query(value = "select coalesce(customer_name, customer_info) as label, count(*) as invoiceCount, " +
+            "coalesce(sum(total_amount), 0) as totalMinor " +
+            "from invoices where business_user_id = :businessUserId and status <> 'CANCELLED' " +
+            "group by coalesce(customer_name, customer_info) order by totalMinor desc limit :limit", nativeQuery = true)
+    List<InvoiceGroupTotal> findTopCustomers(@Param("businessUserId") Long businessUserId, @Param("limit") int limit);
 }
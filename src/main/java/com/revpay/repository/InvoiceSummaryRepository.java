@@ -0,0 +1,7 @@
+package com.revpay.repository;
+
+import com.revpay.entity.InvoiceSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface InvoiceSummaryRepository extends JpaRepository<InvoiceSummary, Long> {
+}
@@ -0,0 +1,7 @@
+package com.revpay.repository;
+
+import com.revpay.entity.KeyRotationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface KeyRotationCheckpointRepository extends JpaRepository<KeyRotationCheckpoint, String> {
+}
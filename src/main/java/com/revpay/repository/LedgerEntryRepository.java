@@ -0,0 +1,19 @@
+package com.revpay.repository;
+
+import com.revpay.entity.LedgerEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.stream.Stream;
+
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    // Sequential audit scan over uk_ledger_entries_user_sequence; caller must close the stream
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<LedgerEntry> findByUserIdOrderBySequenceAsc(Long userId);
+}
@@ -0,0 +1,14 @@
+package com.revpay.repository;
+
+import com.revpay.entity.NotificationPreference;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface NotificationPreferenceRepository extends JpaRepository<NotificationPreference, Long> {
+
+    @Query("select p.enabledMask from NotificationPreference p where p.userId = :userId")
+    Optional<Integer> findMaskByUserId(@Param("userId") Long userId);
+}
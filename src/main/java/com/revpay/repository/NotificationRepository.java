@@ -3,16 +3,61 @@ package com.revpay.repository;
 import com.revpay.entity.Notification;
 import com.revpay.entity.User;
 import com.revpay.entity.enums.NotificationType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
+    // Inbox keyset on (createdAt, id), newest first; the PREFERENCE row is not a notification
+    String INBOX_KEYSET =
+            "and n.type <> com.revpay.entity.enums.NotificationType.PREFERENCE " +
+            "and (:beforeCreatedAt is null or n.createdAt < :beforeCreatedAt " +
+            "     or (n.createdAt = :beforeCreatedAt and n.id < :beforeId)) " +
+            "order by n.createdAt desc, n.id desc";
+
     List<Notification> findByUserOrderByCreatedAtDesc(User user);
 
     List<Notification> findByUserAndReadStatusFalseOrderByCreatedAtDesc(User user);
 
     Optional<Notification> findByUserAndType(User user, NotificationType type);
+
+    // Served from idx_notifications_user_read_created; the PREFERENCE row is never counted
+    @Query("select count(n) from Notification n where n.user.id = :userId and n.readStatus = false " +
+            "and n.type <> com.revpay.entity.enums.NotificationType.PREFERENCE")
+    long countUnread(@Param("userId") Long userId);
+
+    @Query("select n from Notification n where n.user = :user " + INBOX_KEYSET)
+    List<Notification> findInboxPage(
+            @Param("user") User user,
+            @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
+
+    @Query("select n from Notification n where n.user = :user and n.readStatus = false " + INBOX_KEYSET)
+    List<Notification> findUnreadInboxPage(
+            @Param("user") User user,
+            @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
+
+    @Modifying
+    @Query("update Notification n set n.readStatus = true where n.user.id = :userId and n.readStatus = false " +
+            "and n.type <> com.revpay.entity.enums.NotificationType.PREFERENCE")
+    int markAllRead(@Param("userId") Long userId);
+
+    // Ids owned by someone else are silently ignored
+    @Modifying
+    @Query("update Notification n set n.readStatus = true where n.user.id = :userId and n.id in :ids " +
+            "and n.readStatus = false and n.type <> com.revpay.entity.enums.NotificationType.PREFERENCE")
+    int markRead(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,18 @@
+package com.revpay.repository;
+
+/**
+ * Revenue of one product over a period: units sold, lines and line totals
+ * (tax included) in minor units.
+ *
+ * @since 1.1
+ */
+public interface ProductRevenue {
+
+    String getProductName();
+
+    long getQuantity();
+
+    long getLineCount();
+
+    long getRevenueMinor();
+}
@@ -4,13 +4,36 @@ import com.revpay.entity.Transaction;
 import com.revpay.entity.User;
 import com.revpay.entity.enums.TransactionStatus;
 import com.revpay.entity.enums.TransactionType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
+    // Optional history filters + keyset cursor on (createdAt, id); null disables a filter
+    String HISTORY_FILTERS =
+            "and (:from is null or t.createdAt >= :from) " +
+            "and (:to is null or t.createdAt < :to) " +
+            "and (:type is null or t.transactionType = :type) " +
+            "and (:status is null or t.status = :status) " +
+            "and (:search is null or lower(t.note) like lower(concat('%', :search, '%'))) " +
+            "and (:beforeCreatedAt is null or t.createdAt < :beforeCreatedAt " +
+            "     or (t.createdAt = :beforeCreatedAt and t.id < :beforeId)) " +
+            "order by t.createdAt desc, t.id desc";
+
+    // Moves a request out of PENDING; 0 means another call already resolved it
+    @Modifying
+    @Query("update Transaction t set t.status = :status, t.transactionType = :type " +
+            "where t.id = :id and t.status = com.revpay.entity.enums.TransactionStatus.PENDING")
+    int resolvePending(@Param("id") Long id,
+                       @Param("status") TransactionStatus status,
+                       @Param("type") TransactionType type);
+
     // All transactions related to a user
     List<Transaction> findBySenderOrReceiver(User sender, User receiver);
 
@@ -29,6 +52,36 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             User sender, User receiver, LocalDateTime start, LocalDateTime end
     );
 
+    // History page, sent side (range scan on idx_transactions_sender_created)
+    @Query("select t from Transaction t left join fetch t.sender left join fetch t.receiver " +
+            "where t.sender = :user " + HISTORY_FILTERS)
+    List<Transaction> findSentHistoryPage(
+            @Param("user") User user,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("type") TransactionType type,
+            @Param("status") TransactionStatus status,
+            @Param("search") String search,
+            @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
+
+    // History page, received side (range scan on idx_transactions_receiver_created)
+    @Query("select t from Transaction t left join fetch t.sender left join fetch t.receiver " +
+            "where t.receiver = :user " + HISTORY_FILTERS)
+    List<Transaction> findReceivedHistoryPage(
+            @Param("user") User user,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("type") TransactionType type,
+            @Param("status") TransactionStatus status,
+            @Param("search") String search,
+            @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
+
     // Pending requests
     List<Transaction> findByReceiverAndTransactionTypeAndStatus(
             User receiver, TransactionType type, TransactionStatus status
@@ -0,0 +1,21 @@
+package com.revpay.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns a login needs, read without loading the User entity.
+ *
+ * @since 1.1
+ */
+public interface UserCredentials {
+
+    Long getId();
+
+    String getPasswordHash();
+
+    boolean isAccountLocked();
+
+    int getFailedLoginAttempts();
+
+    LocalDateTime getLockedUntil();
+}
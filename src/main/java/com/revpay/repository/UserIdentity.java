@@ -0,0 +1,16 @@
+package com.revpay.repository;
+
+/**
+ * A user's id with the two identifiers it can be addressed by, read without
+ * loading the User entity.
+ *
+ * @since 1.1
+ */
+public interface UserIdentity {
+
+    Long getId();
+
+    String getEmail();
+
+    String getPhone();
+}
@@ -3,7 +3,12 @@ package com.revpay.repository;
 import com.revpay.entity.User;
 import com.revpay.entity.enums.AccountType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
@@ -15,8 +20,25 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmailOrPhone(String email, String phone);
 
+    // Login check: five columns over the unique email/phone indexes, no entity materialized
+    @Query("select u.id as id, u.passwordHash as passwordHash, u.accountLocked as accountLocked, " +
+            "u.failedLoginAttempts as failedLoginAttempts, u.lockedUntil as lockedUntil " +
+            "from User u where u.email = :identifier or u.phone = :identifier")
+    Optional<UserCredentials> findCredentialsByEmailOrPhone(@Param("identifier") String identifier);
+
+    // Compare-and-set, so a concurrent password reset is never overwritten by an upgrade
+    @Transactional
+    @Modifying
+    @Query("update User u set u.passwordHash = :newHash where u.id = :id and u.passwordHash = :oldHash")
+    int updatePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
     List<User> findByAccountType(AccountType accountType);
 
+    // Bulk recipient resolution: one IN query over the unique email/phone indexes, three columns a row
+    @Query("select u.id as id, u.email as email, u.phone as phone " +
+            "from User u where u.email in :identifiers or u.phone in :identifiers")
+    List<UserIdentity> findIdentitiesByEmailOrPhoneIn(@Param("identifiers") Collection<String> identifiers);
+
     boolean existsByEmail(String email);
 
     boolean existsByPhone(String phone);
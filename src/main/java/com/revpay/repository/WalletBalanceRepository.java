@@ -0,0 +1,18 @@
+package com.revpay.repository;
+
+import com.revpay.entity.WalletBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface WalletBalanceRepository extends JpaRepository<WalletBalance, Long> {
+
+    // SELECT ... FOR UPDATE: a locking read sees the latest committed snapshot, whatever the read view
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from WalletBalance w where w.userId = :userId")
+    Optional<WalletBalance> findByIdForUpdate(@Param("userId") Long userId);
+}
@@ -0,0 +1,181 @@
+package com.revpay.security;
+
+import com.revpay.service.LatencyHistogram;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BCrypt hashing and verification on a small, bounded pool.
+ *
+ * PIN, password and security-answer checks all run here instead of on the
+ * caller's thread, so a burst of them queues behind a fixed number of hashing
+ * threads rather than occupying every thread that also moves money. When the
+ * queue is full the check is rejected immediately.
+ *
+ * New hashes use {@code revpay.security.bcrypt.cost}. If
+ * {@code revpay.security.bcrypt.target-millis} is set, startup raises the cost
+ * to the highest value whose hash still finishes within that target on this
+ * host. Existing hashes keep verifying at the cost they were created with.
+ *
+ * @since 1.1
+ */
+@Component
+public class CredentialHasher {
+
+    private static final Logger log = LoggerFactory.getLogger(CredentialHasher.class);
+
+    private static final int MAX_COST = 16;
+    private static final String CALIBRATION_INPUT = "calibration-0000";
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final long targetMillis;
+    private volatile int cost;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final LatencyHistogram queueLatency = new LatencyHistogram();
+    private final LatencyHistogram hashLatency = new LatencyHistogram();
+
+    public CredentialHasher(@Value("${revpay.security.bcrypt.cost:10}") int cost,
+                            @Value("${revpay.security.bcrypt.target-millis:0}") long targetMillis,
+                            @Value("${revpay.security.hashing.threads:2}") int threads,
+                            @Value("${revpay.security.hashing.queue-capacity:64}") int queueCapacity,
+                            @Value("${revpay.security.hashing.timeout-millis:5000}") long timeoutMillis) {
+        this.cost = cost;
+        this.targetMillis = targetMillis;
+        this.timeoutMillis = timeoutMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "credential-hasher-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PostConstruct
+    public void calibrate() {
+        if (targetMillis <= 0) {
+            log.info("BCrypt cost {} (calibration disabled)", cost);
+            return;
+        }
+        int chosen = cost;
+        for (int candidate = cost; candidate <= MAX_COST; candidate++) {
+            long started = System.nanoTime();
+            BCrypt.hashpw(CALIBRATION_INPUT, BCrypt.gensalt(candidate));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            if (elapsedMillis > targetMillis) {
+                break;
+            }
+            chosen = candidate;
+        }
+        log.info("BCrypt cost calibrated to {} for a {} ms target (configured minimum {})", chosen, targetMillis, cost);
+        cost = chosen;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Hashes a secret at the current cost.
+     *
+     * @throws RuntimeException if the hashing pool is saturated or the call times out
+     * @since 1.1
+     */
+    public String hash(String raw) {
+        int rounds = cost;
+        return submit(() -> BCrypt.hashpw(raw, BCrypt.gensalt(rounds)));
+    }
+
+    /**
+     * Checks a secret against a stored BCrypt hash; false when there is no hash.
+     *
+     * @throws RuntimeException if the hashing pool is saturated or the call times out
+     * @since 1.1
+     */
+    public boolean matches(String raw, String hash) {
+        if (raw == null || hash == null || hash.isEmpty()) {
+            return false;
+        }
+        return submit(() -> BCrypt.checkpw(raw, hash));
+    }
+
+    private <T> T submit(Callable<T> work) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueLatency.record(startedAt - submittedAt);
+                try {
+                    return work.call();
+                } finally {
+                    hashLatency.record(System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new RuntimeException("Too many credential checks in progress, please try again", e);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Credential check failed", e.getCause());
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new RuntimeException("Credential check timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Credential check interrupted", e);
+        }
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public long getCompleted() {
+        return hashLatency.getCount();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    // Time from submission until a hashing thread picks the call up
+    public LatencyHistogram getQueueLatency() {
+        return queueLatency;
+    }
+
+    public LatencyHistogram getHashLatency() {
+        return hashLatency;
+    }
+}
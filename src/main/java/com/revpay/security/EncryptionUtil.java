@@ -1,38 +1,155 @@
 package com.revpay.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * AES-GCM encryption of stored payment details.
+ *
+ * The key is derived once (SHA-256 of {@code revpay.security.aes.secret}) and
+ * each thread keeps its own Cipher, so a call costs one init and one doFinal.
+ * Every value gets a fresh 96-bit nonce and is stored as
+ * {@code {v<keyVersion>}base64(nonce || ciphertext || tag)}; the version
+ * header tells a re-encryption job which rows still use an older key.
+ *
+ * Retired keys ({@code revpay.security.aes.retired-secrets}, a comma-separated
+ * list of {@code version:secret}) can still decrypt but never encrypt.
+ */
 @Component
 public class EncryptionUtil {
 
-    private static final String ALGORITHM = "AES";
-    private static final String SECRET_KEY = "REV_PAY_256_BIT_SECRET_KEY";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final String HEADER_PREFIX = "{v";
+    private static final char HEADER_SUFFIX = '}';
 
-    private static SecretKeySpec getKey() {
-        return new SecretKeySpec(SECRET_KEY.getBytes(), ALGORITHM);
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(TRANSFORMATION + " is not available", e);
+        }
+    });
+
+    private final SecureRandom random = new SecureRandom();
+    private final SecretKeySpec key;
+    private final int keyVersion;
+    private final String header;
+    private final Map<Integer, SecretKeySpec> decryptionKeys = new HashMap<>();
+
+    public EncryptionUtil(@Value("${revpay.security.aes.secret}") String secret,
+                          @Value("${revpay.security.aes.key-version:1}") int keyVersion,
+                          @Value("${revpay.security.aes.retired-secrets:}") String retiredSecrets) {
+        this.key = deriveKey(secret);
+        this.keyVersion = keyVersion;
+        this.header = HEADER_PREFIX + keyVersion + HEADER_SUFFIX;
+
+        if (retiredSecrets != null && !retiredSecrets.isBlank()) {
+            for (String entry : retiredSecrets.split(",")) {
+                int colon = entry.indexOf(':');
+                if (colon <= 0) {
+                    throw new IllegalStateException("revpay.security.aes.retired-secrets entries must be version:secret");
+                }
+                decryptionKeys.put(Integer.parseInt(entry.substring(0, colon).trim()),
+                        deriveKey(entry.substring(colon + 1).trim()));
+            }
+        }
+        decryptionKeys.put(keyVersion, key);
     }
 
-    public static String encrypt(String data) {
+    public String encrypt(String data) {
         try {
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, getKey());
-            return Base64.getEncoder().encodeToString(cipher.doFinal(data.getBytes()));
-        } catch (Exception e) {
-            throw new RuntimeException("Encryption failed");
+            byte[] nonce = new byte[NONCE_LENGTH];
+            random.nextBytes(nonce);
+
+            Cipher cipher = CIPHER.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, nonce));
+            byte[] plain = data.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer out = ByteBuffer.allocate(NONCE_LENGTH + cipher.getOutputSize(plain.length));
+            out.put(nonce);
+            cipher.doFinal(ByteBuffer.wrap(plain), out);
+
+            return header + Base64.getEncoder().encodeToString(out.array());
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Encryption failed", e);
         }
     }
 
-    public static String decrypt(String encryptedData) {
+    public String decrypt(String encryptedData) {
+        int version = keyVersionOf(encryptedData);
+        SecretKeySpec versionKey = decryptionKeys.get(version);
+        if (versionKey == null) {
+            throw new RuntimeException("Decryption failed: no key for version " + version);
+        }
+        try {
+            byte[] payload = Base64.getDecoder().decode(encryptedData.substring(encryptedData.indexOf(HEADER_SUFFIX) + 1));
+            if (payload.length <= NONCE_LENGTH) {
+                throw new RuntimeException("Decryption failed: truncated value");
+            }
+            Cipher cipher = CIPHER.get();
+            cipher.init(Cipher.DECRYPT_MODE, versionKey, new GCMParameterSpec(TAG_LENGTH_BITS, payload, 0, NONCE_LENGTH));
+            byte[] plain = cipher.doFinal(payload, NONCE_LENGTH, payload.length - NONCE_LENGTH);
+            return new String(plain, StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new RuntimeException("Decryption failed", e);
+        }
+    }
+
+    /**
+     * Key version from a value's header.
+     *
+     * @param encryptedData a value produced by {@link #encrypt(String)}
+     * @return the key version it was encrypted with
+     * @throws RuntimeException if the value has no version header
+     * @since 1.1
+     */
+    public int keyVersionOf(String encryptedData) {
+        int end = encryptedData == null ? -1 : encryptedData.indexOf(HEADER_SUFFIX);
+        if (end < 0 || !encryptedData.startsWith(HEADER_PREFIX)) {
+            throw new RuntimeException("Decryption failed: missing key version header");
+        }
+        try {
+            return Integer.parseInt(encryptedData.substring(HEADER_PREFIX.length(), end));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Decryption failed: malformed key version header", e);
+        }
+    }
+
+    /**
+     * Whether a stored value was encrypted with a key other than the current one.
+     *
+     * @since 1.1
+     */
+    public boolean needsReEncryption(String encryptedData) {
+        return encryptedData != null && keyVersionOf(encryptedData) != keyVersion;
+    }
+
+    public int getKeyVersion() {
+        return keyVersion;
+    }
+
+    private static SecretKeySpec deriveKey(String secret) {
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalStateException("revpay.security.aes.secret must be set");
+        }
         try {
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, getKey());
-            return new String(cipher.doFinal(Base64.getDecoder().decode(encryptedData)));
-        } catch (Exception e) {
-            throw new RuntimeException("Decryption failed");
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(digest, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
 }
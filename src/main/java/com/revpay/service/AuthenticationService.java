@@ -0,0 +1,179 @@
+package com.revpay.service;
+
+import com.revpay.entity.User;
+import com.revpay.exception.InvalidCredentialsException;
+import com.revpay.exception.UserNotFoundException;
+import com.revpay.repository.UserCredentials;
+import com.revpay.repository.UserRepository;
+import com.revpay.security.CredentialHasher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The one password login path.
+ *
+ * Stored passwords may be BCrypt hashes or, for accounts created before
+ * passwords were hashed, plain text. Plain text is compared in constant time
+ * and, on a successful login, replaced with a BCrypt hash; BCrypt hashes below
+ * the current cost are re-hashed the same way. Each step of a login (credential
+ * lookup, password check, upgrade, profile load) is timed separately.
+ *
+ * @since 1.1
+ */
+@Service
+public class AuthenticationService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthenticationService.class);
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$[./A-Za-z0-9]{53}$");
+
+    private final UserRepository userRepository;
+    private final CredentialHasher credentialHasher;
+    private final LoginRateLimiter loginRateLimiter;
+
+    @Value("${revpay.login.max-attempts}")
+    private int maxFailedAttempts;
+
+    private final LatencyHistogram lookupLatency = new LatencyHistogram();
+    private final LatencyHistogram verifyLatency = new LatencyHistogram();
+    private final LatencyHistogram upgradeLatency = new LatencyHistogram();
+    private final LatencyHistogram profileLatency = new LatencyHistogram();
+    private final AtomicLong upgrades = new AtomicLong();
+
+    public AuthenticationService(UserRepository userRepository,
+                                 CredentialHasher credentialHasher,
+                                 LoginRateLimiter loginRateLimiter) {
+        this.userRepository = userRepository;
+        this.credentialHasher = credentialHasher;
+        this.loginRateLimiter = loginRateLimiter;
+    }
+
+    /**
+     * Authenticates a user. Throttling and failure counting happen in
+     * {@link LoginRateLimiter}; a wrong password never writes to the DB directly.
+     * Only the credential columns are read until the password checks out; the
+     * full profile is loaded afterwards.
+     *
+     * @param source where the attempt comes from, e.g. a client address
+     * @throws UserNotFoundException       if no user has this email or phone
+     * @throws InvalidCredentialsException if throttled, locked out or the password is wrong
+     * @since 1.1
+     */
+    public User authenticate(String identifier, String rawPassword, String source) {
+        loginRateLimiter.checkAllowed(identifier, source);
+
+        long started = System.nanoTime();
+        UserCredentials credentials = userRepository.findCredentialsByEmailOrPhone(identifier).orElse(null);
+        lookupLatency.record(System.nanoTime() - started);
+        if (credentials == null) {
+            loginRateLimiter.recordFailure(identifier, null);
+            throw new UserNotFoundException("User not found");
+        }
+
+        loginRateLimiter.checkAllowed(credentials.getId());
+        if (isLocked(credentials)) {
+            throw new InvalidCredentialsException("Account is locked due to multiple failed login attempts.");
+        }
+
+        started = System.nanoTime();
+        String storedHash = credentials.getPasswordHash();
+        Matcher bcrypt = BCRYPT.matcher(storedHash);
+        boolean isBcrypt = bcrypt.matches();
+        boolean matches = isBcrypt
+                ? credentialHasher.matches(rawPassword, storedHash)
+                : rawPassword != null && MessageDigest.isEqual(storedHash.getBytes(StandardCharsets.UTF_8),
+                rawPassword.getBytes(StandardCharsets.UTF_8));
+        verifyLatency.record(System.nanoTime() - started);
+
+        if (!matches) {
+            int failedAttempts = loginRateLimiter.recordFailure(identifier, credentials.getId());
+
+            throw new InvalidCredentialsException(failedAttempts >= maxFailedAttempts
+                    ? "Account locked due to " + maxFailedAttempts + " failed login attempts."
+                    : "Invalid password. Attempts left: " + (maxFailedAttempts - failedAttempts));
+        }
+
+        if (!isBcrypt || Integer.parseInt(bcrypt.group(1)) < credentialHasher.getCost()) {
+            upgrade(credentials.getId(), storedHash, rawPassword);
+        }
+
+        boolean dirty = credentials.isAccountLocked() || credentials.getFailedLoginAttempts() > 0;
+        loginRateLimiter.recordSuccess(credentials.getId(), dirty);
+
+        started = System.nanoTime();
+        User user = userRepository.findById(credentials.getId())
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        profileLatency.record(System.nanoTime() - started);
+        if (dirty) {
+            // The reset is queued; show the cleared state right away
+            user.setFailedLoginAttempts(0);
+            user.setAccountLocked(false);
+            user.setLockedUntil(null);
+        }
+        return user;
+    }
+
+    /**
+     * Hashes a new password at the current cost.
+     *
+     * @since 1.1
+     */
+    public String hashPassword(String rawPassword) {
+        return credentialHasher.hash(rawPassword);
+    }
+
+    // Best effort: a failed upgrade leaves the old hash, which still verifies
+    private void upgrade(Long userId, String oldHash, String rawPassword) {
+        long started = System.nanoTime();
+        try {
+            if (userRepository.updatePasswordHash(userId, oldHash, credentialHasher.hash(rawPassword)) == 1) {
+                upgrades.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not upgrade password hash for user {}", userId, e);
+        } finally {
+            upgradeLatency.record(System.nanoTime() - started);
+        }
+    }
+
+    // A lock without an end time stays until reset; a timed lock lapses on its own
+    private boolean isLocked(UserCredentials credentials) {
+        return credentials.isAccountLocked()
+                && (credentials.getLockedUntil() == null || credentials.getLockedUntil().isAfter(LocalDateTime.now()));
+    }
+
+    public LatencyHistogram getLookupLatency() {
+        return lookupLatency;
+    }
+
+    public LatencyHistogram getVerifyLatency() {
+        return verifyLatency;
+    }
+
+    public LatencyHistogram getUpgradeLatency() {
+        return upgradeLatency;
+    }
+
+    public LatencyHistogram getProfileLatency() {
+        return profileLatency;
+    }
+
+    public long getUpgrades() {
+        return upgrades.get();
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticationService{lookup=[" + lookupLatency + "], verify=[" + verifyLatency +
+                "], upgrade=[" + upgradeLatency + "], profile=[" + profileLatency + "], upgrades=" + upgrades + "}";
+    }
+}
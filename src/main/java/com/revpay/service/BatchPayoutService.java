@@ -0,0 +1,381 @@
+package com.revpay.service;
+
+import com.revpay.entity.Money;
+import com.revpay.entity.User;
+import com.revpay.entity.enums.AccountType;
+import com.revpay.entity.enums.LedgerEntryType;
+import com.revpay.entity.enums.TransactionStatus;
+import com.revpay.entity.enums.TransactionType;
+import com.revpay.repository.UserIdentity;
+import com.revpay.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk payouts for business accounts.
+ *
+ * Recipients are resolved to ids with one IN query per 1000 identifiers, reading
+ * only id, email and phone rather than whole user rows. The batch total
+ * is checked against the sender's balance once, and lines are then paid in chunks.
+ * Each chunk is one DB transaction that locks the sender and its recipients
+ * (ascending id) and writes transactions, ledger entries and balances with JDBC
+ * batch statements. A failing chunk rolls back on its own; other chunks still pay.
+ *
+ * @since 1.1
+ */
+@Service
+public class BatchPayoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchPayoutService.class);
+
+    private static final int LOOKUP_BATCH_SIZE = 1000;
+
+    private static final String INSERT_TRANSACTION_SQL =
+            "insert into transactions " +
+                    "(sender_id, receiver_id, amount, transaction_type, status, note, created_at) " +
+                    "values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final LedgerService ledgerService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${revpay.payout.chunk-size:500}")
+    private int chunkSize;
+
+    public BatchPayoutService(UserRepository userRepository,
+                              LedgerService ledgerService,
+                              NamedParameterJdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.ledgerService = ledgerService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * One requested payment. {@code amount} is null when the input could not be parsed.
+     */
+    public static final class PayoutLine {
+
+        private final int lineNumber;
+        private final String recipient;
+        private final Money amount;
+        private final String note;
+
+        public PayoutLine(int lineNumber, String recipient, Money amount, String note) {
+            this.lineNumber = lineNumber;
+            this.recipient = recipient;
+            this.amount = amount;
+            this.note = note;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getRecipient() {
+            return recipient;
+        }
+
+        public Money getAmount() {
+            return amount;
+        }
+
+        public String getNote() {
+            return note;
+        }
+    }
+
+    /**
+     * Outcome of one line: COMPLETED with the transaction id, or DECLINED with a reason.
+     */
+    public static final class LineResult {
+
+        private final PayoutLine line;
+        private final TransactionStatus status;
+        private final Long transactionId;
+        private final String message;
+
+        private LineResult(PayoutLine line, TransactionStatus status, Long transactionId, String message) {
+            this.line = line;
+            this.status = status;
+            this.transactionId = transactionId;
+            this.message = message;
+        }
+
+        static LineResult paid(PayoutLine line, Long transactionId) {
+            return new LineResult(line, TransactionStatus.COMPLETED, transactionId, null);
+        }
+
+        static LineResult declined(PayoutLine line, String message) {
+            return new LineResult(line, TransactionStatus.DECLINED, null, message);
+        }
+
+        public PayoutLine getLine() {
+            return line;
+        }
+
+        public TransactionStatus getStatus() {
+            return status;
+        }
+
+        public Long getTransactionId() {
+            return transactionId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * Reads a {@code recipient,amount,note} CSV file (header optional) and pays it.
+     *
+     * @param sender business user paying out
+     * @param file   CSV file path
+     * @return one result per non-blank data line, in file order
+     * @throws IOException if the file cannot be read
+     * @since 1.1
+     */
+    public List<LineResult> payoutFromCsv(User sender, Path file) throws IOException {
+        return payout(sender, parseCsv(file));
+    }
+
+    /**
+     * Parses a payout CSV. Lines whose amount cannot be parsed are kept with a
+     * null amount so they show up as declined in the report.
+     *
+     * @param file CSV file path
+     * @return parsed lines
+     * @throws IOException if the file cannot be read
+     * @since 1.1
+     */
+    public List<PayoutLine> parseCsv(Path file) throws IOException {
+        List<PayoutLine> lines = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String raw;
+            int lineNumber = 0;
+            while ((raw = reader.readLine()) != null) {
+                lineNumber++;
+                if (raw.isBlank()) {
+                    continue;
+                }
+                if (lineNumber == 1 && raw.trim().toLowerCase().startsWith("recipient")) {
+                    continue;
+                }
+
+                String[] fields = raw.split(",", 3);
+                String recipient = fields[0].trim();
+                Money amount = null;
+                if (fields.length > 1) {
+                    try {
+                        amount = Money.parse(fields[1]);
+                    } catch (NumberFormatException e) {
+                        // reported as an invalid amount
+                    }
+                }
+                String note = fields.length > 2 ? unquote(fields[2].trim()) : null;
+                lines.add(new PayoutLine(lineNumber, recipient, amount, note));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Pays every valid line from the sender's wallet.
+     *
+     * @param sender business user paying out
+     * @param lines  requested payments
+     * @return one result per line, in input order
+     * @since 1.1
+     */
+    public List<LineResult> payout(User sender, List<PayoutLine> lines) {
+        if (sender.getAccountType() != AccountType.BUSINESS) {
+            throw new RuntimeException("Bulk payouts are available to business accounts only");
+        }
+
+        long started = System.nanoTime();
+        Map<String, Long> recipients = resolveRecipients(lines);
+
+        LineResult[] results = new LineResult[lines.size()];
+        List<Integer> payable = new ArrayList<>(lines.size());
+        Money total = Money.ZERO;
+
+        for (int i = 0; i < lines.size(); i++) {
+            PayoutLine line = lines.get(i);
+            Long recipientId = recipients.get(line.getRecipient());
+            if (line.getAmount() == null || !line.getAmount().isPositive()) {
+                results[i] = LineResult.declined(line, "Invalid amount");
+            } else if (recipientId == null) {
+                results[i] = LineResult.declined(line, "Recipient not found");
+            } else if (recipientId.equals(sender.getId())) {
+                results[i] = LineResult.declined(line, "Cannot send money to yourself");
+            } else {
+                payable.add(i);
+                total = total.plus(line.getAmount());
+            }
+        }
+
+        // Funds are validated once up front; each chunk re-checks under its locks
+        Money balance = ledgerService.getBalance(sender);
+        if (balance.isLessThan(total)) {
+            for (int i : payable) {
+                results[i] = LineResult.declined(lines.get(i),
+                        "Insufficient balance for batch total " + total);
+            }
+            payable.clear();
+        }
+
+        for (int from = 0; from < payable.size(); from += chunkSize) {
+            List<Integer> chunk = payable.subList(from, Math.min(from + chunkSize, payable.size()));
+            try {
+                List<Long> transactionIds = transactionTemplate.execute(
+                        status -> payChunk(sender.getId(), chunk, lines, recipients));
+                for (int k = 0; k < chunk.size(); k++) {
+                    results[chunk.get(k)] = LineResult.paid(lines.get(chunk.get(k)), transactionIds.get(k));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Payout chunk starting at line {} failed for {}: {}",
+                        lines.get(chunk.get(0)).getLineNumber(), sender.getEmail(), e.getMessage());
+                for (int i : chunk) {
+                    results[i] = LineResult.declined(lines.get(i), e.getMessage());
+                }
+            }
+        }
+
+        sender.setWalletBalance(ledgerService.getBalance(sender));
+
+        long paid = 0;
+        for (LineResult result : results) {
+            if (result.getStatus() == TransactionStatus.COMPLETED) {
+                paid++;
+            }
+        }
+        long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Payout by {}: {} lines, {} paid in {} ms ({} lines/s)",
+                sender.getEmail(), lines.size(), paid, elapsedMs, lines.size() * 1000L / elapsedMs);
+        return List.of(results);
+    }
+
+    private Map<String, Long> resolveRecipients(List<PayoutLine> lines) {
+        Set<String> identifiers = new LinkedHashSet<>();
+        for (PayoutLine line : lines) {
+            identifiers.add(line.getRecipient());
+        }
+
+        Map<String, Long> byIdentifier = new HashMap<>(identifiers.size() * 2);
+        List<String> batch = new ArrayList<>(LOOKUP_BATCH_SIZE);
+        for (String identifier : identifiers) {
+            batch.add(identifier);
+            if (batch.size() == LOOKUP_BATCH_SIZE) {
+                indexRecipients(batch, byIdentifier);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            indexRecipients(batch, byIdentifier);
+        }
+        return byIdentifier;
+    }
+
+    private void indexRecipients(List<String> identifiers, Map<String, Long> byIdentifier) {
+        for (UserIdentity user : userRepository.findIdentitiesByEmailOrPhoneIn(identifiers)) {
+            byIdentifier.put(user.getEmail(), user.getId());
+            byIdentifier.put(user.getPhone(), user.getId());
+        }
+    }
+
+    // Runs inside the chunk transaction
+    private List<Long> payChunk(Long senderId, List<Integer> chunk,
+                                List<PayoutLine> lines, Map<String, Long> recipients) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        userIds.add(senderId);
+        for (int i : chunk) {
+            userIds.add(recipients.get(lines.get(i).getRecipient()));
+        }
+
+        // Index scan in id order = same deterministic lock order as WalletLockService
+        jdbcTemplate.queryForList("select id from users where id in (:ids) order by id for update",
+                new MapSqlParameterSource("ids", userIds), Long.class);
+
+        List<Long> transactionIds = insertTransactions(senderId, chunk, lines, recipients);
+
+        List<LedgerService.Posting> postings = new ArrayList<>(chunk.size() * 2);
+        for (int k = 0; k < chunk.size(); k++) {
+            PayoutLine line = lines.get(chunk.get(k));
+            Long recipientId = recipients.get(line.getRecipient());
+            postings.add(new LedgerService.Posting(senderId, LedgerEntryType.DEBIT,
+                    line.getAmount(), transactionIds.get(k)));
+            postings.add(new LedgerService.Posting(recipientId, LedgerEntryType.CREDIT,
+                    line.getAmount(), transactionIds.get(k)));
+        }
+        ledgerService.postBatch(postings);
+        return transactionIds;
+    }
+
+    private List<Long> insertTransactions(Long senderId, List<Integer> chunk,
+                                          List<PayoutLine> lines, Map<String, Long> recipients) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    INSERT_TRANSACTION_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int i : chunk) {
+                    PayoutLine line = lines.get(i);
+                    ps.setLong(1, senderId);
+                    ps.setLong(2, recipients.get(line.getRecipient()));
+                    ps.setLong(3, line.getAmount().getMinorUnits());
+                    ps.setString(4, TransactionType.SEND.name());
+                    ps.setString(5, TransactionStatus.COMPLETED.name());
+                    ps.setString(6, line.getNote());
+                    ps.setTimestamp(7, now);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                List<Long> ids = new ArrayList<>(chunk.size());
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                if (ids.size() != chunk.size()) {
+                    throw new IllegalStateException("Expected " + chunk.size() +
+                            " generated transaction ids but got " + ids.size());
+                }
+                return ids;
+            }
+        });
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1).replace("\"\"", "\"");
+        }
+        return value.isEmpty() ? null : value;
+    }
+}
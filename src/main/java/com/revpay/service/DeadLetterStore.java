@@ -0,0 +1,106 @@
+package com.revpay.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Messages {@link DeliveryEngine} gave up on, with the reason.
+ *
+ * Held in memory and bounded by {@code revpay.delivery.dead-letter.capacity};
+ * when full the oldest entry is dropped and counted.
+ *
+ * @since 1.1
+ */
+@Component
+public class DeadLetterStore {
+
+    private final int capacity;
+    private final Deque<DeadLetter> entries = new ArrayDeque<>();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public static final class DeadLetter {
+        private final DeliveryMessage message;
+        private final int attempts;
+        private final String reason;
+        private final LocalDateTime failedAt = LocalDateTime.now();
+
+        DeadLetter(DeliveryMessage message, int attempts, String reason) {
+            this.message = message;
+            this.attempts = attempts;
+            this.reason = reason;
+        }
+
+        public DeliveryMessage getMessage() {
+            return message;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public LocalDateTime getFailedAt() {
+            return failedAt;
+        }
+    }
+
+    public DeadLetterStore(@Value("${revpay.delivery.dead-letter.capacity:1000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void add(DeliveryMessage message, int attempts, String reason) {
+        total.incrementAndGet();
+        synchronized (entries) {
+            if (entries.size() >= capacity) {
+                entries.pollFirst();
+                dropped.incrementAndGet();
+            }
+            entries.addLast(new DeadLetter(message, attempts, reason));
+        }
+    }
+
+    /**
+     * Current dead letters, oldest first.
+     */
+    public List<DeadLetter> snapshot() {
+        synchronized (entries) {
+            return new ArrayList<>(entries);
+        }
+    }
+
+    /**
+     * Removes and returns all dead letters, e.g. to re-enqueue them.
+     */
+    public List<DeadLetter> drain() {
+        synchronized (entries) {
+            List<DeadLetter> drained = new ArrayList<>(entries);
+            entries.clear();
+            return drained;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+}
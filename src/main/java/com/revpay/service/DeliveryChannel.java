@@ -0,0 +1,29 @@
+package com.revpay.service;
+
+/**
+ * A way of getting a message to a user outside the app, such as email or SMS.
+ *
+ * Every bean of this type is picked up by {@link DeliveryEngine}, which gives
+ * each channel its own worker pool. {@link #deliver} runs on those workers, so
+ * it may block on I/O. A failed delivery should throw; the engine retries
+ * with backoff and eventually dead-letters the message.
+ *
+ * @since 1.1
+ */
+public interface DeliveryChannel {
+
+    String EMAIL = "email";
+    String SMS = "sms";
+
+    /**
+     * Channel name used to route messages, e.g. {@link #EMAIL}.
+     */
+    String getName();
+
+    /**
+     * Sends one message.
+     *
+     * @throws RuntimeException if the message was not accepted by the provider
+     */
+    void deliver(DeliveryMessage message);
+}
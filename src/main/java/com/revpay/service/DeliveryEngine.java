@@ -0,0 +1,271 @@
+package com.revpay.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers messages over the registered {@link DeliveryChannel}s in the background.
+ *
+ * Each channel has its own bounded worker pool
+ * ({@code revpay.delivery.<channel>.threads} and {@code .queue-capacity}), so a
+ * slow SMS provider never holds up email. {@link #enqueue} only queues the
+ * message and returns. A failed attempt is retried after an exponential
+ * backoff starting at {@code backoff-initial-millis} and capped at
+ * {@code backoff-max-millis}; after {@code max-attempts}, or when the
+ * channel's queue is full, the message goes to the {@link DeadLetterStore}.
+ *
+ * Per channel, the engine keeps counters, a histogram of single delivery
+ * attempts and a histogram of enqueue-to-delivered latency.
+ *
+ * @since 1.1
+ */
+@Component
+public class DeliveryEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryEngine.class);
+
+    private final List<DeliveryChannel> channels;
+    private final DeadLetterStore deadLetterStore;
+    private final Environment environment;
+    private final int maxAttempts;
+    private final long backoffInitialMillis;
+    private final long backoffMaxMillis;
+
+    private final Map<String, ChannelWorker> workers = new LinkedHashMap<>();
+    private ScheduledExecutorService retryScheduler;
+
+    /**
+     * Counters and histograms for one channel.
+     */
+    public static final class ChannelStats {
+
+        private final long startedAt = System.nanoTime();
+        private final AtomicLong enqueued = new AtomicLong();
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong failedAttempts = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong deadLettered = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final LatencyHistogram attemptLatency = new LatencyHistogram();
+        private final LatencyHistogram endToEndLatency = new LatencyHistogram();
+
+        public long getEnqueued() {
+            return enqueued.get();
+        }
+
+        public long getDelivered() {
+            return delivered.get();
+        }
+
+        public long getFailedAttempts() {
+            return failedAttempts.get();
+        }
+
+        public long getRetries() {
+            return retries.get();
+        }
+
+        public long getDeadLettered() {
+            return deadLettered.get();
+        }
+
+        public long getRejected() {
+            return rejected.get();
+        }
+
+        // Average since startup
+        public double getDeliveredPerSecond() {
+            double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            return seconds <= 0 ? 0.0 : delivered.get() / seconds;
+        }
+
+        public LatencyHistogram getAttemptLatency() {
+            return attemptLatency;
+        }
+
+        public LatencyHistogram getEndToEndLatency() {
+            return endToEndLatency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("enqueued=%d delivered=%d (%.1f/s) failedAttempts=%d retries=%d deadLettered=%d " +
+                            "rejected=%d attempt=[%s] endToEnd=[%s]", getEnqueued(), getDelivered(),
+                    getDeliveredPerSecond(), getFailedAttempts(), getRetries(), getDeadLettered(), getRejected(),
+                    attemptLatency, endToEndLatency);
+        }
+    }
+
+    private static final class ChannelWorker {
+        final DeliveryChannel channel;
+        final ThreadPoolExecutor pool;
+        final ChannelStats stats = new ChannelStats();
+
+        ChannelWorker(DeliveryChannel channel, ThreadPoolExecutor pool) {
+            this.channel = channel;
+            this.pool = pool;
+        }
+    }
+
+    public DeliveryEngine(List<DeliveryChannel> channels,
+                          DeadLetterStore deadLetterStore,
+                          Environment environment,
+                          @Value("${revpay.delivery.max-attempts:5}") int maxAttempts,
+                          @Value("${revpay.delivery.backoff-initial-millis:200}") long backoffInitialMillis,
+                          @Value("${revpay.delivery.backoff-max-millis:30000}") long backoffMaxMillis) {
+        this.channels = channels;
+        this.deadLetterStore = deadLetterStore;
+        this.environment = environment;
+        this.maxAttempts = maxAttempts;
+        this.backoffInitialMillis = backoffInitialMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "delivery-retry");
+            t.setDaemon(true);
+            return t;
+        });
+        for (DeliveryChannel channel : channels) {
+            String name = channel.getName();
+            int threads = environment.getProperty("revpay.delivery." + name + ".threads", Integer.class, 2);
+            int queueCapacity = environment.getProperty("revpay.delivery." + name + ".queue-capacity", Integer.class, 1000);
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread t = new Thread(r, "delivery-" + name + "-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+            if (workers.putIfAbsent(name, new ChannelWorker(channel, pool)) != null) {
+                pool.shutdown();
+                throw new IllegalStateException("Two delivery channels are named " + name);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        retryScheduler.shutdownNow();
+        for (ChannelWorker worker : workers.values()) {
+            worker.pool.shutdown();
+        }
+        for (ChannelWorker worker : workers.values()) {
+            worker.pool.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Queues a message for its channel and returns without waiting for delivery.
+     *
+     * @return false if the channel's queue was full and the message was dead-lettered
+     * @throws IllegalArgumentException if no channel has the message's channel name
+     * @since 1.1
+     */
+    public boolean enqueue(DeliveryMessage message) {
+        ChannelWorker worker = workers.get(message.getChannel());
+        if (worker == null) {
+            throw new IllegalArgumentException("Unknown delivery channel: " + message.getChannel());
+        }
+        worker.stats.enqueued.incrementAndGet();
+        return submit(worker, message, 1);
+    }
+
+    private boolean submit(ChannelWorker worker, DeliveryMessage message, int attempt) {
+        try {
+            worker.pool.execute(() -> attempt(worker, message, attempt));
+            return true;
+        } catch (RejectedExecutionException e) {
+            worker.stats.rejected.incrementAndGet();
+            deadLetter(worker, message, attempt - 1, "Channel queue full");
+            return false;
+        }
+    }
+
+    private void attempt(ChannelWorker worker, DeliveryMessage message, int attempt) {
+        long started = System.nanoTime();
+        try {
+            worker.channel.deliver(message);
+            long finished = System.nanoTime();
+            worker.stats.attemptLatency.record(finished - started);
+            worker.stats.endToEndLatency.record(finished - message.getEnqueuedAt());
+            worker.stats.delivered.incrementAndGet();
+        } catch (RuntimeException e) {
+            worker.stats.attemptLatency.record(System.nanoTime() - started);
+            worker.stats.failedAttempts.incrementAndGet();
+            if (attempt >= maxAttempts) {
+                deadLetter(worker, message, attempt, e.getMessage());
+                return;
+            }
+            long delay = backoffMillis(attempt);
+            log.debug("Delivery of {} failed (attempt {}), retrying in {} ms: {}", message, attempt, delay, e.getMessage());
+            worker.stats.retries.incrementAndGet();
+            try {
+                retryScheduler.schedule(() -> submit(worker, message, attempt + 1), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException shuttingDown) {
+                deadLetter(worker, message, attempt, "Shut down before retry");
+            }
+        }
+    }
+
+    // initial * 2^(attempt-1), capped
+    private long backoffMillis(int attempt) {
+        int shift = Math.min(attempt - 1, 30);
+        return Math.min(backoffMaxMillis, backoffInitialMillis << shift);
+    }
+
+    private void deadLetter(ChannelWorker worker, DeliveryMessage message, int attempts, String reason) {
+        worker.stats.deadLettered.incrementAndGet();
+        deadLetterStore.add(message, attempts, reason);
+        log.warn("Gave up delivering {} after {} attempt(s): {}", message, attempts, reason);
+    }
+
+    /**
+     * Stats for one channel.
+     *
+     * @throws IllegalArgumentException if there is no such channel
+     * @since 1.1
+     */
+    public ChannelStats getStats(String channel) {
+        ChannelWorker worker = workers.get(channel);
+        if (worker == null) {
+            throw new IllegalArgumentException("Unknown delivery channel: " + channel);
+        }
+        return worker.stats;
+    }
+
+    public boolean hasChannel(String channel) {
+        return workers.containsKey(channel);
+    }
+
+    public int getQueueSize(String channel) {
+        ChannelWorker worker = workers.get(channel);
+        return worker == null ? 0 : worker.pool.getQueue().size();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DeliveryEngine{");
+        workers.forEach((name, worker) -> sb.append(name).append("=[").append(worker.stats).append("] "));
+        return sb.append("deadLetters=").append(deadLetterStore.size()).append('}').toString();
+    }
+}
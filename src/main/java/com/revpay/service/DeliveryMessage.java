@@ -0,0 +1,68 @@
+package com.revpay.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One outbound message for a {@link DeliveryChannel}. Immutable; the engine
+ * tracks attempts separately.
+ *
+ * @since 1.1
+ */
+public final class DeliveryMessage {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final long id = SEQUENCE.incrementAndGet();
+    private final String channel;
+    private final String recipient;
+    private final String subject;
+    private final String body;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final long enqueuedAt = System.nanoTime();
+
+    public DeliveryMessage(String channel, String recipient, String subject, String body) {
+        if (channel == null || recipient == null || recipient.isBlank()) {
+            throw new IllegalArgumentException("A delivery needs a channel and a recipient");
+        }
+        this.channel = channel;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    // System.nanoTime() at creation, for end-to-end latency
+    long getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    // Bodies may hold one-time codes, so they are left out
+    @Override
+    public String toString() {
+        return "DeliveryMessage{id=" + id + ", channel=" + channel + ", recipient=" + recipient + "}";
+    }
+}
@@ -0,0 +1,168 @@
+package com.revpay.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded map whose entries expire a fixed time after they are put.
+ *
+ * Every entry gets the same time to live, so insertion order is expiry order:
+ * the eldest entry is always the one closest to expiry. A put moves its key to
+ * the young end, a background sweep drops expired entries from the old end,
+ * and at capacity the eldest entry is evicted, all without scanning the map.
+ * The owner calls {@link #start()} and {@link #stop()} from its own lifecycle.
+ *
+ * @since 1.1
+ */
+public class ExpiringMap<K, V> {
+
+    private final String name;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final long sweepSeconds;
+
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    // Insertion-ordered, so the eldest entry expires first; guarded by `this`
+    private final LinkedHashMap<K, Timed<V>> entries = new LinkedHashMap<>(256) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Timed<V>> eldest) {
+            if (size() > maxEntries) {
+                evicted.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private ScheduledExecutorService sweeper;
+
+    private static final class Timed<V> {
+        final V value;
+        final long expiresAt;
+
+        Timed(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt > 0;
+        }
+    }
+
+    /**
+     * @param name         names the sweeper thread, e.g. "otp" runs as "otp-sweeper"
+     * @param ttl          time to live of every entry
+     * @param maxEntries   entries held before the eldest is evicted
+     * @param sweepSeconds interval between sweeps for expired entries
+     */
+    public ExpiringMap(String name, long ttl, TimeUnit unit, int maxEntries, long sweepSeconds) {
+        this.name = name;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.maxEntries = maxEntries;
+        this.sweepSeconds = sweepSeconds;
+    }
+
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name + "-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepSeconds, sweepSeconds, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        clear();
+    }
+
+    /**
+     * Puts a value with a fresh time to live, replacing any previous one.
+     *
+     * @since 1.1
+     */
+    public synchronized void put(K key, V value) {
+        // Re-insert so the key moves to the young end
+        entries.remove(key);
+        if (entries.size() >= maxEntries) {
+            sweep();
+        }
+        entries.put(key, new Timed<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * The live value for a key; an expired one is removed and not returned.
+     *
+     * @since 1.1
+     */
+    public synchronized V get(K key) {
+        Timed<V> timed = entries.get(key);
+        if (timed == null) {
+            return null;
+        }
+        if (timed.isExpired(System.nanoTime())) {
+            entries.remove(key);
+            expired.incrementAndGet();
+            return null;
+        }
+        return timed.value;
+    }
+
+    /**
+     * Removes the key only while it still maps to this exact value, so of two
+     * callers holding the same value only one succeeds.
+     *
+     * @since 1.1
+     */
+    public synchronized boolean remove(K key, V value) {
+        Timed<V> timed = entries.get(key);
+        if (timed == null || timed.value != value) {
+            return false;
+        }
+        entries.remove(key);
+        return true;
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized void sweep() {
+        long now = System.nanoTime();
+        Iterator<Timed<V>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (!it.next().isExpired(now)) {
+                // Everything younger expires later
+                break;
+            }
+            it.remove();
+            expired.incrementAndGet();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getExpired() {
+        return expired.get();
+    }
+
+    public long getEvicted() {
+        return evicted.get();
+    }
+}
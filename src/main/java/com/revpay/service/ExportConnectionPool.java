@@ -0,0 +1,51 @@
+package com.revpay.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Small read-only connection pool for streamed exports.
+ *
+ * On MySQL its connections set useCursorFetch=true, so an export's fixed fetch
+ * size is honoured with a server-side cursor and several cursors can stay open
+ * on one connection. The application's main datasource keeps client-side
+ * statements; only export queries pay for cursor fetch. Connections are opened
+ * on first use and none are kept idle.
+ *
+ * Deliberately not a DataSource bean, which would switch off the auto-configured
+ * main datasource.
+ *
+ * @since 1.1
+ */
+@Component
+public class ExportConnectionPool {
+
+    private final HikariDataSource dataSource;
+
+    public ExportConnectionPool(DataSourceProperties properties,
+                                @Value("${revpay.export.pool-size:2}") int poolSize) {
+        dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("revpay-export");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(0);
+        dataSource.setReadOnly(true);
+        if (dataSource.getJdbcUrl() != null && dataSource.getJdbcUrl().startsWith("jdbc:mysql:")) {
+            dataSource.addDataSourceProperty("useCursorFetch", "true");
+        }
+    }
+
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    @PreDestroy
+    public void close() {
+        dataSource.close();
+    }
+}
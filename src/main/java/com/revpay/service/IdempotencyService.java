@@ -0,0 +1,168 @@
+package com.revpay.service;
+
+import com.revpay.entity.IdempotencyRecord;
+import com.revpay.entity.Transaction;
+import com.revpay.entity.User;
+import com.revpay.repository.IdempotencyRecordRepository;
+import com.revpay.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * De-duplicates retried money movements by client-supplied key.
+ *
+ * The key row is inserted first, in the same DB transaction as the money
+ * movement. A concurrent retry with the same key blocks on that insert and
+ * fails once the first call commits, and then replays the stored result.
+ * Recently completed keys are also held in a bounded in-memory cache, so a
+ * replay costs a cache hit or one primary-key lookup.
+ *
+ * A key is bound to the request that first used it: the same user, operation
+ * and request fingerprint (amount and counterparty). Reusing it for anything
+ * else is rejected rather than answered with the earlier result.
+ *
+ * @since 1.1
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String SEND_MONEY = "SEND_MONEY";
+    public static final String ACCEPT_REQUEST = "ACCEPT_REQUEST";
+    public static final String WITHDRAW_MONEY = "WITHDRAW_MONEY";
+    public static final String ADD_MONEY = "ADD_MONEY";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, IdempotencyRecord> recentKeys;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              TransactionRepository transactionRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${revpay.idempotency.cache-size:10000}") int cacheSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Access-ordered LRU; guarded by synchronizing on the map
+        this.recentKeys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Fingerprint of a request's parameters, for {@link #execute}.
+     *
+     * @param parts the parameters that define the request, in a fixed order
+     * @return hex SHA-256 of the parts
+     * @since 1.1
+     */
+    public static String fingerprint(Object... parts) {
+        StringBuilder canonical = new StringBuilder();
+        for (Object part : parts) {
+            canonical.append(part).append('\n');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Runs a money movement at most once per key.
+     *
+     * @param key       client idempotency key; null or blank disables de-duplication
+     * @param user      user performing the operation
+     * @param operation operation name, one of the constants in this class
+     * @param request   {@link #fingerprint} of the request's amount and counterparty
+     * @param action    the money movement; runs inside the transaction opened here
+     * @return the transaction produced by the first successful call with this key
+     * @throws RuntimeException if the key was already used by another user or
+     *                          operation, or for a different request
+     * @since 1.1
+     */
+    public Transaction execute(String key, User user, String operation, String request,
+                               Supplier<Transaction> action) {
+        if (key == null || key.isBlank()) {
+            return transactionTemplate.execute(status -> action.get());
+        }
+
+        Optional<Transaction> replay = findReplay(key, user, operation, request);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+
+        try {
+            IdempotencyRecord record = new IdempotencyRecord(key, user.getId(), operation, request);
+            Transaction result = transactionTemplate.execute(status -> {
+                // Claim the key before touching balances
+                entityManager.persist(record);
+                entityManager.flush();
+
+                Transaction tx = action.get();
+                record.setTransactionId(tx.getId());
+                return tx;
+            });
+            remember(record);
+            return result;
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            // Another call with this key won the race; hand back its result
+            log.info("Idempotent replay for key {} after concurrent retry", key);
+            return findReplay(key, user, operation, request).orElseThrow(() -> e);
+        }
+    }
+
+    private Optional<Transaction> findReplay(String key, User user, String operation, String request) {
+        IdempotencyRecord record;
+        synchronized (recentKeys) {
+            record = recentKeys.get(key);
+        }
+        if (record == null) {
+            record = idempotencyRecordRepository.findById(key).orElse(null);
+            if (record == null) {
+                return Optional.empty();
+            }
+            remember(record);
+        }
+
+        if (!record.getUserId().equals(user.getId()) || !record.getOperation().equals(operation)) {
+            throw new RuntimeException("Idempotency key already used for a different operation");
+        }
+        if (!record.getRequestHash().equals(request)) {
+            throw new RuntimeException("Idempotency key already used with a different amount or recipient");
+        }
+        return transactionRepository.findById(record.getTransactionId());
+    }
+
+    private void remember(IdempotencyRecord record) {
+        synchronized (recentKeys) {
+            recentKeys.put(record.getKey(), record);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.revpay.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-node {@link OtpStore}.
+ *
+ * Codes expire {@code revpay.otp.ttl-seconds} after issue and are dropped
+ * after {@code revpay.otp.max-attempts} wrong guesses. At most
+ * {@code revpay.otp.max-entries} codes are held in an {@link ExpiringMap}: a
+ * background sweep removes expired ones, and at capacity the code closest to
+ * expiry is evicted.
+ *
+ * @since 1.1
+ */
+@Component
+public class InMemoryOtpStore implements OtpStore {
+
+    private final ExpiringMap<Long, Entry> codes;
+    private final int maxAttempts;
+
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong verified = new AtomicLong();
+    private final AtomicLong attemptsExceeded = new AtomicLong();
+
+    private static final class Entry {
+        final byte[] code;
+        final AtomicInteger attempts = new AtomicInteger();
+
+        Entry(String code) {
+            this.code = code.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    public InMemoryOtpStore(@Value("${revpay.otp.ttl-seconds:300}") long ttlSeconds,
+                            @Value("${revpay.otp.max-entries:10000}") int maxEntries,
+                            @Value("${revpay.otp.max-attempts:5}") int maxAttempts,
+                            @Value("${revpay.otp.sweep-seconds:30}") long sweepSeconds) {
+        this.codes = new ExpiringMap<>("otp", ttlSeconds, TimeUnit.SECONDS, maxEntries, sweepSeconds);
+        this.maxAttempts = maxAttempts;
+    }
+
+    @PostConstruct
+    public void start() {
+        codes.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        codes.stop();
+    }
+
+    @Override
+    public void put(Long userId, String code) {
+        codes.put(userId, new Entry(code));
+        issued.incrementAndGet();
+    }
+
+    @Override
+    public boolean verify(Long userId, String code) {
+        if (userId == null || code == null) {
+            return false;
+        }
+        Entry entry = codes.get(userId);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.attempts.incrementAndGet() > maxAttempts) {
+            if (codes.remove(userId, entry)) {
+                attemptsExceeded.incrementAndGet();
+            }
+            return false;
+        }
+        if (!MessageDigest.isEqual(entry.code, code.getBytes(StandardCharsets.UTF_8))) {
+            return false;
+        }
+        // Only one concurrent caller can consume the code
+        if (codes.remove(userId, entry)) {
+            verified.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void remove(Long userId) {
+        if (userId != null) {
+            codes.remove(userId);
+        }
+    }
+
+    void sweep() {
+        codes.sweep();
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    public long getIssued() {
+        return issued.get();
+    }
+
+    public long getVerified() {
+        return verified.get();
+    }
+
+    public long getExpired() {
+        return codes.getExpired();
+    }
+
+    public long getEvicted() {
+        return codes.getEvicted();
+    }
+
+    public long getAttemptsExceeded() {
+        return attemptsExceeded.get();
+    }
+}
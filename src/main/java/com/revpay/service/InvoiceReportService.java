@@ -0,0 +1,251 @@
+package com.revpay.service;
+
+import com.revpay.entity.InvoiceSummary;
+import com.revpay.entity.Money;
+import com.revpay.entity.User;
+import com.revpay.entity.enums.InvoiceStatus;
+import com.revpay.repository.InvoiceGroupTotal;
+import com.revpay.repository.InvoiceLineItemRepository;
+import com.revpay.repository.InvoiceRepository;
+import com.revpay.repository.InvoiceSummaryRepository;
+import com.revpay.repository.ProductRevenue;
+import jakarta.transaction.Transactional;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Invoice reporting for business users: totals by status, aging of unpaid
+ * invoices, top customers and per-product revenue.
+ *
+ * Status totals come from the business's invoice_summaries row, which
+ * {@link InvoiceService} adjusts in the same transaction as each invoice
+ * change. A business without a row gets one built from a single grouped
+ * aggregate on first use. Aging and top customers depend on the current
+ * date, so they are grouped SQL aggregates over the
+ * (business_user_id, status, created_at) index; no invoice rows are loaded.
+ *
+ * @since 1.1
+ */
+@Service
+public class InvoiceReportService {
+
+    public static final String[] AGING_BUCKETS = {"0-30", "31-60", "61-90", "90+"};
+
+    private static final String EXISTS_SQL =
+            "select count(*) from invoice_summaries where business_user_id = :businessUserId";
+
+    // Builds the row from the invoices table; a concurrent build for the same business is ignored
+    private static final String BUILD_SQL =
+            "insert ignore into invoice_summaries (business_user_id, unpaid_count, unpaid_amount, paid_count, " +
+                    "paid_amount, cancelled_count, cancelled_amount, updated_at) " +
+                    "select :businessUserId, " +
+                    "count(case when status = 'UNPAID' then 1 end), " +
+                    "coalesce(sum(case when status = 'UNPAID' then total_amount end), 0), " +
+                    "count(case when status = 'PAID' then 1 end), " +
+                    "coalesce(sum(case when status = 'PAID' then total_amount end), 0), " +
+                    "count(case when status = 'CANCELLED' then 1 end), " +
+                    "coalesce(sum(case when status = 'CANCELLED' then total_amount end), 0), " +
+                    ":now from invoices where business_user_id = :businessUserId";
+
+    private static final String APPLY_DELTA_SQL =
+            "update invoice_summaries set " +
+                    "unpaid_count = unpaid_count + :unpaidCount, unpaid_amount = unpaid_amount + :unpaidAmount, " +
+                    "paid_count = paid_count + :paidCount, paid_amount = paid_amount + :paidAmount, " +
+                    "cancelled_count = cancelled_count + :cancelledCount, " +
+                    "cancelled_amount = cancelled_amount + :cancelledAmount, updated_at = :now " +
+                    "where business_user_id = :businessUserId";
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceLineItemRepository invoiceLineItemRepository;
+    private final InvoiceSummaryRepository invoiceSummaryRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Businesses whose summary row is known to exist
+    private final Set<Long> builtSummaries = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Invoice count and total for one group of a report.
+     */
+    public static final class GroupTotal {
+        private final String label;
+        private final long invoiceCount;
+        private final Money total;
+
+        GroupTotal(String label, long invoiceCount, Money total) {
+            this.label = label;
+            this.invoiceCount = invoiceCount;
+            this.total = total;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public long getInvoiceCount() {
+            return invoiceCount;
+        }
+
+        public Money getTotal() {
+            return total;
+        }
+    }
+
+    public InvoiceReportService(InvoiceRepository invoiceRepository,
+                                InvoiceLineItemRepository invoiceLineItemRepository,
+                                InvoiceSummaryRepository invoiceSummaryRepository,
+                                NamedParameterJdbcTemplate jdbcTemplate) {
+        this.invoiceRepository = invoiceRepository;
+        this.invoiceLineItemRepository = invoiceLineItemRepository;
+        this.invoiceSummaryRepository = invoiceSummaryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Counts and totals by status for a business; one primary-key read once the row exists.
+     *
+     * @since 1.1
+     */
+    @Transactional
+    public InvoiceSummary getSummary(User businessUser) {
+        Long businessUserId = businessUser.getId();
+        ensureSummary(businessUserId);
+        return invoiceSummaryRepository.findById(businessUserId).orElseGet(() -> {
+            // Marked as built by a transaction that later rolled back
+            builtSummaries.remove(businessUserId);
+            ensureSummary(businessUserId);
+            return invoiceSummaryRepository.findById(businessUserId)
+                    .orElseThrow(() -> new IllegalStateException("Invoice summary missing for " + businessUserId));
+        });
+    }
+
+    /**
+     * Counts and totals by status, aggregated from the invoices table rather than the summary row.
+     *
+     * @since 1.1
+     */
+    public List<GroupTotal> getStatusTotals(User businessUser) {
+        return toGroupTotals(invoiceRepository.sumByStatus(businessUser.getId()));
+    }
+
+    /**
+     * Unpaid invoices in the 0-30, 31-60, 61-90 and 90+ day buckets by creation
+     * date, in that order; empty buckets are included with zero totals.
+     *
+     * @since 1.1
+     */
+    public List<GroupTotal> getAging(User businessUser) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, GroupTotal> byBucket = new LinkedHashMap<>();
+        for (String bucket : AGING_BUCKETS) {
+            byBucket.put(bucket, new GroupTotal(bucket, 0, Money.ZERO));
+        }
+        for (GroupTotal total : toGroupTotals(invoiceRepository.sumUnpaidByAge(businessUser.getId(),
+                now.minusDays(30), now.minusDays(60), now.minusDays(90)))) {
+            byBucket.put(total.getLabel(), total);
+        }
+        return new ArrayList<>(byBucket.values());
+    }
+
+    /**
+     * Customers with the highest non-cancelled invoice totals, largest first.
+     *
+     * @since 1.1
+     */
+    public List<GroupTotal> getTopCustomers(User businessUser, int limit) {
+        return toGroupTotals(invoiceRepository.findTopCustomers(businessUser.getId(), limit));
+    }
+
+    /**
+     * Best-selling products by revenue (line totals, tax included) for invoices
+     * created in [from, to), excluding cancelled invoices. Only invoices entered
+     * with line items are counted.
+     *
+     * @since 1.1
+     */
+    public List<ProductRevenue> getProductRevenue(User businessUser, LocalDateTime from, LocalDateTime to, int limit) {
+        return invoiceLineItemRepository.sumRevenueByProduct(businessUser.getId(), from, to, limit);
+    }
+
+    /**
+     * Revenue of one product for invoices created in [from, to), excluding cancelled invoices.
+     *
+     * @return the product's revenue, or null if it was not sold in the period
+     * @since 1.1
+     */
+    public ProductRevenue getProductRevenue(User businessUser, String productName, LocalDateTime from, LocalDateTime to) {
+        List<ProductRevenue> rows = invoiceLineItemRepository.sumRevenueForProduct(
+                businessUser.getId(), productName, from, to);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Makes sure a business has a summary row. Call inside the invoice change's
+     * transaction and before the change is written, so the build does not
+     * already include it.
+     *
+     * @since 1.1
+     */
+    public void ensureSummary(Long businessUserId) {
+        if (builtSummaries.contains(businessUserId)) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("businessUserId", businessUserId);
+        Long rows = jdbcTemplate.queryForObject(EXISTS_SQL, params, Long.class);
+        if (rows == null || rows == 0) {
+            jdbcTemplate.update(BUILD_SQL, params.addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+        }
+        builtSummaries.add(businessUserId);
+    }
+
+    /**
+     * Applies an invoice's status change to its business's summary row.
+     *
+     * @param from previous status, or null for a new invoice
+     * @param to   new status
+     * @since 1.1
+     */
+    public void recordStatusChange(Long businessUserId, InvoiceStatus from, InvoiceStatus to, Money amount) {
+        recordStatusChange(businessUserId, from, to, 1, amount);
+    }
+
+    /**
+     * Applies the same status change of several invoices of one business with a single UPDATE.
+     *
+     * @param count  number of invoices that changed
+     * @param amount their combined total
+     * @since 1.1
+     */
+    public void recordStatusChange(Long businessUserId, InvoiceStatus from, InvoiceStatus to, int count, Money amount) {
+        long minor = amount == null ? 0 : amount.getMinorUnits();
+        MapSqlParameterSource params = new MapSqlParameterSource("businessUserId", businessUserId)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        for (InvoiceStatus status : InvoiceStatus.values()) {
+            int delta = (status == to ? 1 : 0) - (status == from ? 1 : 0);
+            String prefix = status.name().toLowerCase(Locale.ROOT);
+            params.addValue(prefix + "Count", delta * count).addValue(prefix + "Amount", delta * minor);
+        }
+        if (jdbcTemplate.update(APPLY_DELTA_SQL, params) == 0) {
+            // No row after all; the next read builds it from the invoices, change included
+            builtSummaries.remove(businessUserId);
+        }
+    }
+
+    private static List<GroupTotal> toGroupTotals(List<InvoiceGroupTotal> rows) {
+        List<GroupTotal> totals = new ArrayList<>(rows.size());
+        for (InvoiceGroupTotal row : rows) {
+            totals.add(new GroupTotal(row.getLabel(), row.getInvoiceCount(), Money.ofMinor(row.getTotalMinor())));
+        }
+        return totals;
+    }
+}
@@ -1,13 +1,20 @@
 package com.revpay.service;
 
 import com.revpay.entity.Invoice;
+import com.revpay.entity.InvoiceLineItem;
+import com.revpay.entity.Money;
 import com.revpay.entity.User;
 import com.revpay.entity.enums.InvoiceStatus;
+import com.revpay.repository.InvoiceLineItemRepository;
 import com.revpay.repository.InvoiceRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +29,90 @@ public class InvoiceService {
     @Autowired
     private InvoiceRepository invoiceRepository;
 
+    @Autowired
+    private InvoiceReportService invoiceReportService;
+
+    @Autowired
+    private InvoiceLineItemRepository invoiceLineItemRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private static final String INSERT_LINE_SQL =
+            "insert into invoice_line_items (invoice_id, business_user_id, product_name, quantity, unit_price, " +
+                    "tax_basis_points, tax_amount, line_total, created_at) " +
+                    "values (:invoiceId, :businessUserId, :productName, :quantity, :unitPrice, " +
+                    ":taxBasisPoints, :taxAmount, :lineTotal, :createdAt)";
+
+    /**
+     * Creates an invoice from line items. The total is the sum of the line
+     * totals, tax included; the lines are written with one JDBC batch.
+     *
+     * @param businessUser The business user creating the invoice
+     * @param customerName Customer name, used for customer reports
+     * @param customerInfo Customer contact details
+     * @param lineItems    Lines not yet attached to an invoice
+     * @param paymentTerms Payment terms (e.g., Net 30)
+     * @return The saved Invoice entity
+     * @throws IllegalArgumentException if there are no lines or no customer name
+     * @since 1.1
+     */
+    @Transactional
+    public Invoice createInvoice(User businessUser, String customerName, String customerInfo,
+                                 List<InvoiceLineItem> lineItems, String paymentTerms) {
+        if (customerName == null || customerName.isBlank()) {
+            throw new IllegalArgumentException("Customer name is required");
+        }
+        if (lineItems == null || lineItems.isEmpty()) {
+            throw new IllegalArgumentException("An invoice needs at least one line item");
+        }
+
+        Money total = Money.ZERO;
+        StringBuilder details = new StringBuilder();
+        for (InvoiceLineItem line : lineItems) {
+            total = total.plus(line.getLineTotal());
+            if (details.length() > 0) {
+                details.append("; ");
+            }
+            details.append(line.getQuantity()).append(" x ").append(line.getProductName())
+                    .append(" @ ").append(line.getUnitPrice())
+                    .append(" + ").append(BigDecimal.valueOf(line.getTaxBasisPoints(), 2).toPlainString())
+                    .append("% tax = ").append(line.getLineTotal());
+        }
+
+        Invoice invoice = new Invoice();
+        invoice.setBusinessUser(businessUser);
+        invoice.setCustomerName(customerName.trim());
+        invoice.setCustomerInfo(customerInfo);
+        invoice.setItemizedDetails(details.toString());
+        invoice.setPaymentTerms(paymentTerms);
+        invoice.setTotalAmount(total);
+        invoice.setStatus(InvoiceStatus.UNPAID);
+
+        invoiceReportService.ensureSummary(businessUser.getId());
+        Invoice saved = invoiceRepository.save(invoice);
+
+        MapSqlParameterSource[] rows = new MapSqlParameterSource[lineItems.size()];
+        for (int i = 0; i < rows.length; i++) {
+            InvoiceLineItem line = lineItems.get(i);
+            line.attachTo(saved);
+            rows[i] = new MapSqlParameterSource()
+                    .addValue("invoiceId", saved.getId())
+                    .addValue("businessUserId", line.getBusinessUserId())
+                    .addValue("productName", line.getProductName())
+                    .addValue("quantity", line.getQuantity())
+                    .addValue("unitPrice", line.getUnitPrice().getMinorUnits())
+                    .addValue("taxBasisPoints", line.getTaxBasisPoints())
+                    .addValue("taxAmount", line.getTaxAmount().getMinorUnits())
+                    .addValue("lineTotal", line.getLineTotal().getMinorUnits())
+                    .addValue("createdAt", Timestamp.valueOf(line.getCreatedAt()));
+        }
+        jdbcTemplate.batchUpdate(INSERT_LINE_SQL, rows);
+
+        invoiceReportService.recordStatusChange(businessUser.getId(), null, InvoiceStatus.UNPAID, total);
+        return saved;
+    }
+
     /**
      * Creates a new invoice for a business user.
      *
@@ -32,9 +123,13 @@ public class InvoiceService {
      * @param totalAmount     Total invoice amount
      * @return The saved Invoice entity
      * @since 1.0
+     * @deprecated the total cannot be checked against free-text items; use
+     * {@link #createInvoice(User, String, String, List, String)} with line items
      */
+    @Deprecated
+    @Transactional
     public Invoice createInvoice(User businessUser, String customerInfo, String itemizedDetails,
-                                 String paymentTerms, Double totalAmount) {
+                                 String paymentTerms, Money totalAmount) {
 
         Invoice invoice = new Invoice();
         invoice.setBusinessUser(businessUser);
@@ -44,7 +139,10 @@ public class InvoiceService {
         invoice.setTotalAmount(totalAmount);
         invoice.setStatus(InvoiceStatus.UNPAID);
 
-        return invoiceRepository.save(invoice);
+        invoiceReportService.ensureSummary(businessUser.getId());
+        Invoice saved = invoiceRepository.save(invoice);
+        invoiceReportService.recordStatusChange(businessUser.getId(), null, InvoiceStatus.UNPAID, totalAmount);
+        return saved;
     }
 
     /**
@@ -59,7 +157,23 @@ public class InvoiceService {
     }
 
     /**
-     * Marks an unpaid invoice as PAID.
+     * Line items of one of the business user's invoices, in entry order.
+     *
+     * @return the lines, or an empty list if the invoice does not exist or belongs to someone else
+     * @since 1.1
+     */
+    public List<InvoiceLineItem> getLineItems(Long invoiceId, User businessUser) {
+        List<InvoiceLineItem> lines = invoiceLineItemRepository.findByInvoiceIdOrderById(invoiceId);
+        if (!lines.isEmpty() && !lines.get(0).getBusinessUserId().equals(businessUser.getId())) {
+            return List.of();
+        }
+        return lines;
+    }
+
+    /**
+     * Marks an unpaid invoice as PAID for money received outside RevPay; no
+     * wallet balance moves. Customers paying from their wallet go through
+     * {@link InvoiceSettlementService}.
      *
      * @param invoiceId    The invoice ID to pay
      * @param businessUser The user paying the invoice
@@ -81,8 +195,11 @@ public class InvoiceService {
             return false;
         }
 
+        invoiceReportService.ensureSummary(businessUser.getId());
         invoice.setStatus(InvoiceStatus.PAID);
         invoiceRepository.save(invoice);
+        invoiceReportService.recordStatusChange(businessUser.getId(), InvoiceStatus.UNPAID, InvoiceStatus.PAID,
+                invoice.getTotalAmount());
         return true;
     }
 
@@ -111,8 +228,11 @@ public class InvoiceService {
         }
 
         // Set status to CANCELLED instead of deleting to keep record
+        invoiceReportService.ensureSummary(businessUser.getId());
         invoice.setStatus(InvoiceStatus.CANCELLED);
         invoiceRepository.save(invoice);
+        invoiceReportService.recordStatusChange(businessUser.getId(), InvoiceStatus.UNPAID, InvoiceStatus.CANCELLED,
+                invoice.getTotalAmount());
         return true;
     }
 }
@@ -0,0 +1,426 @@
+package com.revpay.service;
+
+import com.revpay.entity.Invoice;
+import com.revpay.entity.Money;
+import com.revpay.entity.Transaction;
+import com.revpay.entity.User;
+import com.revpay.entity.enums.InvoiceStatus;
+import com.revpay.entity.enums.LedgerEntryType;
+import com.revpay.entity.enums.TransactionStatus;
+import com.revpay.entity.enums.TransactionType;
+import com.revpay.exception.InsufficientBalanceException;
+import com.revpay.exception.InvoiceSettlementException;
+import com.revpay.repository.InvoiceRepository;
+import com.revpay.repository.TransactionRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pays invoices from a customer's wallet.
+ *
+ * A settlement debits the payer, credits the business, writes an
+ * INVOICE_PAYMENT transaction and marks the invoice PAID in one DB
+ * transaction. Both wallet rows are locked lowest id first, as for
+ * transfers. The invoice update is guarded by its version column, so if two
+ * requests race to pay the same invoice, exactly one commits and the other
+ * rolls back with its money untouched.
+ *
+ * Bulk settlement pays many invoices for one payer in chunks of
+ * {@code revpay.invoice.settlement.chunk-size}, each chunk one DB transaction
+ * written with JDBC batches. Invoices are claimed with a version-checked
+ * UPDATE before any money moves; an invoice another request already claimed
+ * is reported as declined instead of failing its chunk. A chunk transaction
+ * takes its users row locks before any plain read, and reads balances with
+ * FOR UPDATE, so on MySQL's REPEATABLE READ it never works from a read view
+ * older than its locks.
+ *
+ * @since 1.1
+ */
+@Service
+public class InvoiceSettlementService {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceSettlementService.class);
+
+    // Businesses never change, so they can be read before the chunk transaction to pick the locks
+    private static final String SELECT_BUSINESSES_SQL =
+            "select id, business_user_id from invoices where id in (:ids)";
+
+    private static final String SELECT_INVOICES_SQL =
+            "select id, business_user_id, total_amount, status, version from invoices where id in (:ids)";
+
+    private static final String LOCK_USERS_SQL = "select id from users where id in (:ids) order by id for update";
+
+    private static final String BALANCE_SQL =
+            "select balance from wallet_balances where user_id = :userId for update";
+
+    // Wallets never posted to yet still hold their balance on the users row
+    private static final String LEGACY_BALANCE_SQL = "select wallet_balance from users where id = :userId";
+
+    private static final String CLAIM_SQL =
+            "update invoices set status = 'PAID', version = version + 1, paid_by_user_id = :payerId, paid_at = :paidAt " +
+                    "where id = :id and version = :version and status = 'UNPAID'";
+
+    private static final String LINK_TRANSACTION_SQL =
+            "update invoices set payment_transaction_id = :transactionId where id = :id";
+
+    private static final String INSERT_TRANSACTION_SQL =
+            "insert into transactions " +
+                    "(sender_id, receiver_id, amount, transaction_type, status, note, created_at) " +
+                    "values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final InvoiceRepository invoiceRepository;
+    private final TransactionRepository transactionRepository;
+    private final WalletLockService walletLockService;
+    private final LedgerService ledgerService;
+    private final InvoiceReportService invoiceReportService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${revpay.invoice.settlement.chunk-size:200}")
+    private int chunkSize;
+
+    /**
+     * Outcome of one invoice in a bulk settlement: COMPLETED with the
+     * transaction id, or DECLINED with a reason.
+     */
+    public static final class SettlementResult {
+
+        private final Long invoiceId;
+        private final TransactionStatus status;
+        private final Long transactionId;
+        private final String message;
+
+        private SettlementResult(Long invoiceId, TransactionStatus status, Long transactionId, String message) {
+            this.invoiceId = invoiceId;
+            this.status = status;
+            this.transactionId = transactionId;
+            this.message = message;
+        }
+
+        static SettlementResult paid(Long invoiceId, Long transactionId) {
+            return new SettlementResult(invoiceId, TransactionStatus.COMPLETED, transactionId, null);
+        }
+
+        static SettlementResult declined(Long invoiceId, String message) {
+            return new SettlementResult(invoiceId, TransactionStatus.DECLINED, null, message);
+        }
+
+        public Long getInvoiceId() {
+            return invoiceId;
+        }
+
+        public TransactionStatus getStatus() {
+            return status;
+        }
+
+        public Long getTransactionId() {
+            return transactionId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private static final class InvoiceRow {
+        final long id;
+        final long businessUserId;
+        final Money amount;
+        final InvoiceStatus status;
+        final long version;
+
+        InvoiceRow(long id, long businessUserId, Money amount, InvoiceStatus status, long version) {
+            this.id = id;
+            this.businessUserId = businessUserId;
+            this.amount = amount;
+            this.status = status;
+            this.version = version;
+        }
+    }
+
+    public InvoiceSettlementService(InvoiceRepository invoiceRepository,
+                                    TransactionRepository transactionRepository,
+                                    WalletLockService walletLockService,
+                                    LedgerService ledgerService,
+                                    InvoiceReportService invoiceReportService,
+                                    NamedParameterJdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager) {
+        this.invoiceRepository = invoiceRepository;
+        this.transactionRepository = transactionRepository;
+        this.walletLockService = walletLockService;
+        this.ledgerService = ledgerService;
+        this.invoiceReportService = invoiceReportService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /* ---------------------------------------------------
+       SINGLE SETTLEMENT
+       Status check, wallet move, transaction row and
+       invoice update commit together; the invoice's
+       version is checked when the update is flushed.
+    --------------------------------------------------- */
+    @Transactional
+    public Transaction settle(Long invoiceId, User payer) {
+        Invoice invoice = invoiceRepository.findById(invoiceId)
+                .orElseThrow(() -> new InvoiceSettlementException("Invoice not found"));
+        if (invoice.getStatus() != InvoiceStatus.UNPAID) {
+            throw new InvoiceSettlementException("Invoice " + invoiceId + " is " + invoice.getStatus());
+        }
+        Long businessUserId = invoice.getBusinessUser().getId();
+        if (businessUserId.equals(payer.getId())) {
+            throw new InvoiceSettlementException("Cannot pay your own invoice");
+        }
+        Money amount = invoice.getTotalAmount();
+        if (amount == null || !amount.isPositive()) {
+            throw new InvoiceSettlementException("Invoice " + invoiceId + " has no amount to pay");
+        }
+
+        invoiceReportService.ensureSummary(businessUserId);
+        Map<Long, User> locked = walletLockService.lockInOrder(payer.getId(), businessUserId);
+        User from = locked.get(payer.getId());
+        User to = locked.get(businessUserId);
+        if (ledgerService.getLockedBalance(from).isLessThan(amount)) {
+            throw new InsufficientBalanceException("Insufficient balance");
+        }
+
+        Transaction tx = new Transaction();
+        tx.setSender(from);
+        tx.setReceiver(to);
+        tx.setAmount(amount);
+        tx.setTransactionType(TransactionType.INVOICE_PAYMENT);
+        tx.setStatus(TransactionStatus.COMPLETED);
+        tx.setNote(paymentNote(invoiceId));
+        Transaction saved = transactionRepository.save(tx);
+        ledgerService.debit(from, amount, saved);
+        ledgerService.credit(to, amount, saved);
+
+        invoice.setStatus(InvoiceStatus.PAID);
+        invoice.setPaidBy(from);
+        invoice.setPaidAt(LocalDateTime.now());
+        invoice.setPaymentTransaction(saved);
+        try {
+            invoiceRepository.saveAndFlush(invoice);
+        } catch (OptimisticLockingFailureException e) {
+            throw new InvoiceSettlementException("Invoice " + invoiceId + " was paid or changed by another request");
+        }
+        invoiceReportService.recordStatusChange(businessUserId, InvoiceStatus.UNPAID, InvoiceStatus.PAID, amount);
+
+        payer.setWalletBalance(from.getWalletBalance());
+        return saved;
+    }
+
+    /* ---------------------------------------------------
+       BULK SETTLEMENT
+    --------------------------------------------------- */
+
+    /**
+     * Pays many invoices from one payer's wallet, in the given order, until the
+     * balance runs out.
+     *
+     * @param payer      customer paying
+     * @param invoiceIds invoices to pay; duplicates are paid once
+     * @return one result per distinct invoice id, in input order
+     * @since 1.1
+     */
+    public List<SettlementResult> settleAll(User payer, List<Long> invoiceIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(invoiceIds));
+        Map<Long, SettlementResult> results = new LinkedHashMap<>();
+        for (Long id : ids) {
+            results.put(id, null);
+        }
+
+        long started = System.nanoTime();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            try {
+                Map<Long, Long> businesses = new HashMap<>();
+                jdbcTemplate.query(SELECT_BUSINESSES_SQL, new MapSqlParameterSource("ids", chunk),
+                        rs -> {
+                            businesses.put(rs.getLong(1), rs.getLong(2));
+                        });
+                Map<Long, SettlementResult> chunkResults = transactionTemplate.execute(
+                        status -> settleChunk(payer.getId(), chunk, businesses));
+                results.putAll(chunkResults);
+            } catch (RuntimeException e) {
+                log.warn("Settlement chunk starting at invoice {} failed for {}: {}",
+                        chunk.get(0), payer.getEmail(), e.getMessage());
+                for (Long id : chunk) {
+                    results.put(id, SettlementResult.declined(id, e.getMessage()));
+                }
+            }
+        }
+
+        payer.setWalletBalance(ledgerService.getBalance(payer));
+
+        long paid = results.values().stream().filter(r -> r.getStatus() == TransactionStatus.COMPLETED).count();
+        long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Bulk settlement by {}: {} invoices, {} paid in {} ms", payer.getEmail(), ids.size(), paid, elapsedMs);
+        return new ArrayList<>(results.values());
+    }
+
+    // Runs inside the chunk transaction; businesses maps invoice id to business user id
+    private Map<Long, SettlementResult> settleChunk(Long payerId, List<Long> chunk, Map<Long, Long> businesses) {
+        Map<Long, SettlementResult> results = new LinkedHashMap<>();
+
+        // Locks first: this must be the transaction's first read. Index scan in id order
+        // = same deterministic lock order as WalletLockService
+        Set<Long> userIds = new LinkedHashSet<>();
+        userIds.add(payerId);
+        userIds.addAll(businesses.values());
+        jdbcTemplate.queryForList(LOCK_USERS_SQL, new MapSqlParameterSource("ids", userIds), Long.class);
+
+        Map<Long, InvoiceRow> rows = new HashMap<>();
+        jdbcTemplate.query(SELECT_INVOICES_SQL, new MapSqlParameterSource("ids", chunk), rs -> {
+            rows.put(rs.getLong(1), new InvoiceRow(rs.getLong(1), rs.getLong(2),
+                    Money.ofMinor(rs.getLong(3)), InvoiceStatus.valueOf(rs.getString(4)), rs.getLong(5)));
+        });
+
+        List<InvoiceRow> candidates = new ArrayList<>(chunk.size());
+        for (Long id : chunk) {
+            InvoiceRow row = rows.get(id);
+            if (row == null) {
+                results.put(id, SettlementResult.declined(id, "Invoice not found"));
+            } else if (!userIds.contains(row.businessUserId)) {
+                // Created after the businesses were read; its business is not locked
+                results.put(id, SettlementResult.declined(id, "Invoice was paid or changed by another request"));
+            } else if (row.status != InvoiceStatus.UNPAID) {
+                results.put(id, SettlementResult.declined(id, "Invoice is " + row.status));
+            } else if (row.businessUserId == payerId) {
+                results.put(id, SettlementResult.declined(id, "Cannot pay your own invoice"));
+            } else if (!row.amount.isPositive()) {
+                results.put(id, SettlementResult.declined(id, "Invoice has no amount to pay"));
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return results;
+        }
+
+        MapSqlParameterSource payerParams = new MapSqlParameterSource("userId", payerId);
+        List<Long> snapshot = jdbcTemplate.queryForList(BALANCE_SQL, payerParams, Long.class);
+        Long balanceMinor = snapshot.isEmpty()
+                ? jdbcTemplate.queryForObject(LEGACY_BALANCE_SQL, payerParams, Long.class)
+                : snapshot.get(0);
+        Money remaining = Money.ofMinor(balanceMinor == null ? 0 : balanceMinor);
+
+        // Take invoices in order while the balance covers them, then claim those by version
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<InvoiceRow> affordable = new ArrayList<>(candidates.size());
+        List<MapSqlParameterSource> claims = new ArrayList<>(candidates.size());
+        for (InvoiceRow row : candidates) {
+            if (remaining.isLessThan(row.amount)) {
+                results.put(row.id, SettlementResult.declined(row.id, "Insufficient balance"));
+                continue;
+            }
+            remaining = remaining.minus(row.amount);
+            affordable.add(row);
+            invoiceReportService.ensureSummary(row.businessUserId);
+            claims.add(new MapSqlParameterSource()
+                    .addValue("id", row.id)
+                    .addValue("version", row.version)
+                    .addValue("payerId", payerId)
+                    .addValue("paidAt", now));
+        }
+        if (affordable.isEmpty()) {
+            return results;
+        }
+
+        int[] claimed = jdbcTemplate.batchUpdate(CLAIM_SQL, claims.toArray(new MapSqlParameterSource[0]));
+        List<InvoiceRow> settled = new ArrayList<>(affordable.size());
+        for (int i = 0; i < affordable.size(); i++) {
+            InvoiceRow row = affordable.get(i);
+            if (claimed[i] < 0) {
+                // Without a row count a lost race cannot be told from a win; roll the chunk back
+                throw new IllegalStateException("Driver did not report which invoices were claimed");
+            }
+            if (claimed[i] == 0) {
+                results.put(row.id, SettlementResult.declined(row.id, "Invoice was paid or changed by another request"));
+            } else {
+                settled.add(row);
+            }
+        }
+        if (settled.isEmpty()) {
+            return results;
+        }
+
+        List<Long> transactionIds = insertTransactions(payerId, settled, now);
+        List<LedgerService.Posting> postings = new ArrayList<>(settled.size() * 2);
+        List<MapSqlParameterSource> links = new ArrayList<>(settled.size());
+        Map<Long, Money> settledByBusiness = new LinkedHashMap<>();
+        Map<Long, Integer> countByBusiness = new HashMap<>();
+        for (int i = 0; i < settled.size(); i++) {
+            InvoiceRow row = settled.get(i);
+            Long transactionId = transactionIds.get(i);
+            postings.add(new LedgerService.Posting(payerId, LedgerEntryType.DEBIT, row.amount, transactionId));
+            postings.add(new LedgerService.Posting(row.businessUserId, LedgerEntryType.CREDIT, row.amount, transactionId));
+            links.add(new MapSqlParameterSource("id", row.id).addValue("transactionId", transactionId));
+            settledByBusiness.merge(row.businessUserId, row.amount, Money::plus);
+            countByBusiness.merge(row.businessUserId, 1, Integer::sum);
+            results.put(row.id, SettlementResult.paid(row.id, transactionId));
+        }
+        ledgerService.postBatch(postings);
+        jdbcTemplate.batchUpdate(LINK_TRANSACTION_SQL, links.toArray(new MapSqlParameterSource[0]));
+        settledByBusiness.forEach((businessUserId, total) -> invoiceReportService.recordStatusChange(
+                businessUserId, InvoiceStatus.UNPAID, InvoiceStatus.PAID, countByBusiness.get(businessUserId), total));
+        return results;
+    }
+
+    private List<Long> insertTransactions(Long payerId, List<InvoiceRow> settled, Timestamp now) {
+        return jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    INSERT_TRANSACTION_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (InvoiceRow row : settled) {
+                    ps.setLong(1, payerId);
+                    ps.setLong(2, row.businessUserId);
+                    ps.setLong(3, row.amount.getMinorUnits());
+                    ps.setString(4, TransactionType.INVOICE_PAYMENT.name());
+                    ps.setString(5, TransactionStatus.COMPLETED.name());
+                    ps.setString(6, paymentNote(row.id));
+                    ps.setTimestamp(7, now);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                List<Long> ids = new ArrayList<>(settled.size());
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                if (ids.size() != settled.size()) {
+                    throw new IllegalStateException("Expected " + settled.size() +
+                            " generated transaction ids but got " + ids.size());
+                }
+                return ids;
+            }
+        });
+    }
+
+    private static String paymentNote(Long invoiceId) {
+        return "Invoice #" + invoiceId;
+    }
+}
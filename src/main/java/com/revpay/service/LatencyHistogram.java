@@ -0,0 +1,73 @@
+package com.revpay.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets.
+ *
+ * Bucket {@code i} counts durations in [2^(i-1), 2^i) microseconds, so
+ * percentiles are accurate to within a factor of two, which is enough to
+ * tell a healthy channel from a struggling one. This is the one timing type
+ * for delivery, dispatch, credential hashing and login steps.
+ *
+ * @since 1.1
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getAverageMillis() {
+        long n = count.get();
+        return n == 0 ? 0.0 : totalNanos.get() / 1_000_000.0 / n;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Upper bound, in milliseconds, of the bucket holding the given percentile.
+     *
+     * @param percentile between 0 and 100
+     */
+    public double getPercentileMillis(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min((1L << i) / 1_000.0, getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d avg=%.2fms p50=%.2fms p99=%.2fms max=%.2fms", getCount(),
+                getAverageMillis(), getPercentileMillis(50), getPercentileMillis(99), getMaxMillis());
+    }
+}
@@ -0,0 +1,527 @@
+package com.revpay.service;
+
+import com.revpay.entity.LedgerEntry;
+import com.revpay.entity.Money;
+import com.revpay.entity.Transaction;
+import com.revpay.entity.User;
+import com.revpay.entity.WalletBalance;
+import com.revpay.entity.enums.LedgerEntryType;
+import com.revpay.exception.InsufficientBalanceException;
+import com.revpay.repository.LedgerEntryRepository;
+import com.revpay.repository.WalletBalanceRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Double-entry wallet ledger.
+ *
+ * Every balance change appends an immutable {@link LedgerEntry} and advances the
+ * wallet's {@link WalletBalance} snapshot in the same transaction. Callers must
+ * hold the wallet owner's row lock (see {@link WalletLockService}), which is what
+ * makes the per-wallet sequence gap-free. Snapshots are read with FOR UPDATE
+ * under that lock: on MySQL's REPEATABLE READ a plain read would return the
+ * transaction's earlier read view, from before transfers that committed while
+ * it waited for the lock.
+ *
+ * Every posting has an equal and opposite one: transfers move money between two
+ * wallets, while deposits, withdrawals and carried-over opening balances are
+ * offset against one of {@link #CLEARING_SHARDS} clearing accounts. Credits
+ * minus debits over all entries is therefore always zero (see
+ * {@link #trialBalance()}).
+ *
+ * @since 1.1
+ */
+@Service
+public class LedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerService.class);
+
+    /**
+     * Number of ledger accounts for money entering or leaving RevPay, with ids
+     * 0, -1, ... -(CLEARING_SHARDS - 1); no user has these ids. Together they
+     * are the contra side of every deposit, withdrawal and opening balance, and
+     * their summed balance is minus the money held in wallets, so they are the
+     * only accounts allowed below zero. Each clearing row is locked by the
+     * postings against it, so spreading wallets over several keeps deposits
+     * and withdrawals from queueing behind one row.
+     */
+    public static final int CLEARING_SHARDS = 16;
+
+    // Creates the clearing snapshot on first use; an existing row is left as is
+    private static final String OPEN_CLEARING_SQL =
+            "insert into wallet_balances (user_id, balance, last_sequence, updated_at) " +
+                    "values (:userId, 0, 0, :updatedAt) on duplicate key update user_id = user_id";
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final WalletBalanceRepository walletBalanceRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Resource key for the clearing account bound to the current DB transaction
+    private final Object clearingShardKey = new Object();
+
+    public LedgerService(LedgerEntryRepository ledgerEntryRepository,
+                         WalletBalanceRepository walletBalanceRepository,
+                         NamedParameterJdbcTemplate jdbcTemplate) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.walletBalanceRepository = walletBalanceRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * A single debit or credit to apply through {@link #postBatch(List)}.
+     */
+    public static final class Posting {
+
+        private final Long userId;
+        private final LedgerEntryType type;
+        private final Money amount;
+        private final Long transactionId;
+
+        public Posting(Long userId, LedgerEntryType type, Money amount, Long transactionId) {
+            this.userId = userId;
+            this.type = type;
+            this.amount = amount;
+            this.transactionId = transactionId;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public LedgerEntryType getType() {
+            return type;
+        }
+
+        public Money getAmount() {
+            return amount;
+        }
+
+        public Long getTransactionId() {
+            return transactionId;
+        }
+    }
+
+    public static boolean isClearingAccount(long id) {
+        return id <= 0 && id > -CLEARING_SHARDS;
+    }
+
+    /**
+     * The clearing account a wallet's money-in and money-out postings go to,
+     * unless its transaction already uses another one.
+     *
+     * @since 1.1
+     */
+    public static long clearingAccountFor(long walletId) {
+        return -Math.floorMod(walletId, CLEARING_SHARDS);
+    }
+
+    /**
+     * Debits a locked wallet.
+     *
+     * @param wallet      wallet owner, row-locked by the caller
+     * @param amount      positive amount to take out
+     * @param transaction the saved transaction this entry belongs to
+     * @return the appended entry
+     * @throws InsufficientBalanceException if the balance does not cover the amount
+     * @since 1.1
+     */
+    public LedgerEntry debit(User wallet, Money amount, Transaction transaction) {
+        WalletBalance snapshot = snapshotFor(wallet);
+        if (snapshot.getBalance().isLessThan(amount)) {
+            throw new InsufficientBalanceException("Insufficient balance");
+        }
+        return append(wallet, snapshot, LedgerEntryType.DEBIT, amount, transaction.getId());
+    }
+
+    /**
+     * Credits a locked wallet.
+     *
+     * @param wallet      wallet owner, row-locked by the caller
+     * @param amount      positive amount to add
+     * @param transaction the saved transaction this entry belongs to
+     * @return the appended entry
+     * @since 1.1
+     */
+    public LedgerEntry credit(User wallet, Money amount, Transaction transaction) {
+        WalletBalance snapshot = snapshotFor(wallet);
+        return append(wallet, snapshot, LedgerEntryType.CREDIT, amount, transaction.getId());
+    }
+
+    /**
+     * Credits a locked wallet with money coming in from outside RevPay, offset
+     * by a debit of the clearing account.
+     *
+     * @param wallet      wallet owner, row-locked by the caller
+     * @param amount      positive amount to add
+     * @param transaction the saved transaction both entries belong to
+     * @return the wallet's entry
+     * @since 1.1
+     */
+    public LedgerEntry deposit(User wallet, Money amount, Transaction transaction) {
+        LedgerEntry entry = credit(wallet, amount, transaction);
+        appendClearing(wallet.getId(), LedgerEntryType.DEBIT, amount, transaction.getId());
+        return entry;
+    }
+
+    /**
+     * Debits a locked wallet for money leaving RevPay, offset by a credit of the
+     * clearing account.
+     *
+     * @param wallet      wallet owner, row-locked by the caller
+     * @param amount      positive amount to take out
+     * @param transaction the saved transaction both entries belong to
+     * @return the wallet's entry
+     * @throws InsufficientBalanceException if the balance does not cover the amount
+     * @since 1.1
+     */
+    public LedgerEntry withdraw(User wallet, Money amount, Transaction transaction) {
+        LedgerEntry entry = debit(wallet, amount, transaction);
+        appendClearing(wallet.getId(), LedgerEntryType.CREDIT, amount, transaction.getId());
+        return entry;
+    }
+
+    /**
+     * Current balance from the materialized snapshot (one primary-key read).
+     * Wallets that have never been posted to fall back to the user row.
+     *
+     * @param wallet wallet owner
+     * @return current balance
+     * @since 1.1
+     */
+    public Money getBalance(User wallet) {
+        return walletBalanceRepository.findById(wallet.getId())
+                .map(WalletBalance::getBalance)
+                .orElse(wallet.getWalletBalance());
+    }
+
+    /**
+     * Latest committed balance of a wallet whose row lock the caller holds, for
+     * checks made before posting. Reads the snapshot with FOR UPDATE, so it is
+     * never older than the lock.
+     *
+     * @param wallet wallet owner, row-locked by the caller
+     * @return current balance
+     * @since 1.1
+     */
+    public Money getLockedBalance(User wallet) {
+        return walletBalanceRepository.findByIdForUpdate(wallet.getId())
+                .map(WalletBalance::getBalance)
+                .orElse(wallet.getWalletBalance());
+    }
+
+    /**
+     * Recomputes a wallet's balance by replaying its entries in sequence order
+     * and checks it against the snapshot. Read-only; used for audits.
+     *
+     * @param userId wallet owner id
+     * @return the replayed balance
+     * @throws IllegalStateException if the sequence has gaps or the snapshot disagrees
+     * @since 1.1
+     */
+    @Transactional
+    public Money rebuildBalance(Long userId) {
+        Money balance = Money.ZERO;
+        long expectedSequence = 1;
+
+        try (Stream<LedgerEntry> entries = ledgerEntryRepository.findByUserIdOrderBySequenceAsc(userId)) {
+            Iterator<LedgerEntry> it = entries.iterator();
+            while (it.hasNext()) {
+                LedgerEntry entry = it.next();
+                if (entry.getSequence() != expectedSequence) {
+                    throw new IllegalStateException("Ledger gap for user " + userId +
+                            ": expected sequence " + expectedSequence + " but found " + entry.getSequence());
+                }
+                balance = entry.getEntryType() == LedgerEntryType.CREDIT
+                        ? balance.plus(entry.getAmount())
+                        : balance.minus(entry.getAmount());
+                expectedSequence++;
+            }
+        }
+
+        Money snapshot = walletBalanceRepository.findById(userId)
+                .map(WalletBalance::getBalance)
+                .orElse(Money.ZERO);
+        if (!snapshot.equals(balance)) {
+            log.error("Ledger mismatch for user {}: snapshot {} vs replayed {}", userId, snapshot, balance);
+            throw new IllegalStateException("Ledger snapshot does not match entries for user " + userId);
+        }
+        return balance;
+    }
+
+    /**
+     * Credits minus debits over every ledger entry, the clearing account
+     * included. Zero while the books balance. Read-only; scans the whole
+     * table, so it is meant for audits.
+     *
+     * @return the sum of all entries
+     * @since 1.1
+     */
+    public Money trialBalance() {
+        Long sum = jdbcTemplate.queryForObject(
+                "select coalesce(sum(case when entry_type = 'CREDIT' then amount else -amount end), 0) " +
+                        "from ledger_entries",
+                new MapSqlParameterSource(), Long.class);
+        return Money.ofMinor(sum == null ? 0 : sum);
+    }
+
+    /**
+     * Applies many postings with JDBC batch statements: one batched INSERT into
+     * ledger_entries, one batched upsert of wallet_balances and one batched
+     * UPDATE of the users.wallet_balance mirror, whatever the number of postings.
+     *
+     * Must run inside a transaction that already holds the row locks of every
+     * user in {@code postings}, and must not be mixed with JPA-managed copies of
+     * the same snapshots in that transaction. Postings are applied in list order.
+     *
+     * @param postings debits and credits to apply
+     * @throws InsufficientBalanceException if any debit would take a wallet below zero
+     * @since 1.1
+     */
+    public void postBatch(List<Posting> postings) {
+        if (postings.isEmpty()) {
+            return;
+        }
+
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (Posting posting : postings) {
+            if (!posting.getAmount().isPositive()) {
+                throw new IllegalArgumentException("Ledger amount must be positive");
+            }
+            userIds.add(posting.getUserId());
+        }
+
+        Map<Long, Money> balances = new HashMap<>();
+        Map<Long, Long> sequences = new HashMap<>();
+        jdbcTemplate.query(
+                "select user_id, balance, last_sequence from wallet_balances where user_id in (:ids) for update",
+                new MapSqlParameterSource("ids", userIds),
+                rs -> {
+                    balances.put(rs.getLong(1), Money.ofMinor(rs.getLong(2)));
+                    sequences.put(rs.getLong(1), rs.getLong(3));
+                });
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<MapSqlParameterSource> entries = new ArrayList<>(postings.size() + userIds.size());
+
+        // Wallets without a snapshot carry their pre-ledger balance over, as in openSnapshot()
+        Set<Long> unopened = new LinkedHashSet<>(userIds);
+        unopened.removeAll(balances.keySet());
+        if (!unopened.isEmpty()) {
+            jdbcTemplate.query(
+                    "select id, wallet_balance from users where id in (:ids)",
+                    new MapSqlParameterSource("ids", unopened),
+                    rs -> {
+                        long userId = rs.getLong(1);
+                        Money opening = Money.ofMinor(rs.getLong(2));
+                        long sequence = 0;
+                        if (opening.isPositive()) {
+                            sequence = 1;
+                            entries.add(entryParams(userId, sequence, LedgerEntryType.CREDIT,
+                                    opening, opening, null, now));
+                        }
+                        balances.put(userId, opening);
+                        sequences.put(userId, sequence);
+                    });
+        }
+
+        // Offset each carried-over opening balance against one clearing account
+        List<Posting> applied = new ArrayList<>(postings);
+        if (!unopened.isEmpty()) {
+            long clearing = clearingShard(unopened.iterator().next());
+            for (Long userId : unopened) {
+                Money opening = balances.get(userId);
+                if (opening != null && opening.isPositive()) {
+                    applied.add(new Posting(clearing, LedgerEntryType.DEBIT, opening, null));
+                }
+            }
+            if (applied.size() > postings.size()) {
+                lockClearingRow(clearing, now, balances, sequences);
+                userIds.add(clearing);
+            }
+        }
+
+        for (Posting posting : applied) {
+            Long userId = posting.getUserId();
+            Money current = balances.get(userId);
+            if (current == null) {
+                throw new IllegalStateException("User not found with id: " + userId);
+            }
+            Money balanceAfter = posting.getType() == LedgerEntryType.CREDIT
+                    ? current.plus(posting.getAmount())
+                    : current.minus(posting.getAmount());
+            if (balanceAfter.isNegative() && !isClearingAccount(userId)) {
+                throw new InsufficientBalanceException("Insufficient balance");
+            }
+            long sequence = sequences.get(userId) + 1;
+            entries.add(entryParams(userId, sequence, posting.getType(),
+                    posting.getAmount(), balanceAfter, posting.getTransactionId(), now));
+            balances.put(userId, balanceAfter);
+            sequences.put(userId, sequence);
+        }
+
+        List<MapSqlParameterSource> snapshots = new ArrayList<>(userIds.size());
+        List<MapSqlParameterSource> mirrors = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            MapSqlParameterSource snapshot = new MapSqlParameterSource()
+                    .addValue("userId", userId)
+                    .addValue("balance", balances.get(userId).getMinorUnits())
+                    .addValue("lastSequence", sequences.get(userId))
+                    .addValue("updatedAt", now);
+            snapshots.add(snapshot);
+            if (!isClearingAccount(userId)) {
+                mirrors.add(snapshot);
+            }
+        }
+
+        jdbcTemplate.batchUpdate(
+                "insert into ledger_entries " +
+                        "(user_id, sequence, entry_type, amount, balance_after, transaction_id, created_at) " +
+                        "values (:userId, :sequence, :entryType, :amount, :balanceAfter, :transactionId, :createdAt)",
+                entries.toArray(new MapSqlParameterSource[0]));
+        jdbcTemplate.batchUpdate(
+                "insert into wallet_balances (user_id, balance, last_sequence, updated_at) " +
+                        "values (:userId, :balance, :lastSequence, :updatedAt) " +
+                        "on duplicate key update balance = values(balance), " +
+                        "last_sequence = values(last_sequence), updated_at = values(updated_at)",
+                snapshots.toArray(new MapSqlParameterSource[0]));
+        jdbcTemplate.batchUpdate(
+                "update users set wallet_balance = :balance, updated_at = :updatedAt where id = :userId",
+                mirrors.toArray(new MapSqlParameterSource[0]));
+    }
+
+    // Locks a clearing snapshot for postBatch and loads its balance and sequence
+    private void lockClearingRow(long clearing, Timestamp now, Map<Long, Money> balances, Map<Long, Long> sequences) {
+        MapSqlParameterSource params = new MapSqlParameterSource("userId", clearing)
+                .addValue("updatedAt", now);
+        jdbcTemplate.update(OPEN_CLEARING_SQL, params);
+        jdbcTemplate.query(
+                "select balance, last_sequence from wallet_balances where user_id = :userId for update",
+                params,
+                rs -> {
+                    balances.put(clearing, Money.ofMinor(rs.getLong(1)));
+                    sequences.put(clearing, rs.getLong(2));
+                });
+    }
+
+    private static MapSqlParameterSource entryParams(long userId, long sequence, LedgerEntryType type,
+                                                     Money amount, Money balanceAfter,
+                                                     Long transactionId, Timestamp createdAt) {
+        return new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("sequence", sequence)
+                .addValue("entryType", type.name())
+                .addValue("amount", amount.getMinorUnits())
+                .addValue("balanceAfter", balanceAfter.getMinorUnits())
+                .addValue("transactionId", transactionId)
+                .addValue("createdAt", createdAt);
+    }
+
+    private WalletBalance snapshotFor(User wallet) {
+        return walletBalanceRepository.findByIdForUpdate(wallet.getId())
+                .orElseGet(() -> openSnapshot(wallet));
+    }
+
+    // First posting for a wallet: carry the pre-ledger balance over as an opening
+    // credit, offset against the clearing account
+    private WalletBalance openSnapshot(User wallet) {
+        WalletBalance snapshot = new WalletBalance(wallet.getId());
+        Money opening = wallet.getWalletBalance();
+        if (opening != null && opening.isPositive()) {
+            ledgerEntryRepository.save(new LedgerEntry(
+                    wallet.getId(), 1, LedgerEntryType.CREDIT, opening, opening, null));
+            snapshot.setBalance(opening);
+            snapshot.setLastSequence(1);
+            appendClearing(wallet.getId(), LedgerEntryType.DEBIT, opening, null);
+        }
+        return walletBalanceRepository.save(snapshot);
+    }
+
+    // The clearing row is locked for the rest of the transaction, after the
+    // caller's users row locks, so its sequence stays gap-free as well
+    private void appendClearing(long walletId, LedgerEntryType type, Money amount, Long transactionId) {
+        long clearingId = clearingShard(walletId);
+        jdbcTemplate.update(OPEN_CLEARING_SQL, new MapSqlParameterSource("userId", clearingId)
+                .addValue("updatedAt", Timestamp.valueOf(LocalDateTime.now())));
+        WalletBalance clearing = walletBalanceRepository.findByIdForUpdate(clearingId)
+                .orElseThrow(() -> new IllegalStateException("Clearing account snapshot is missing"));
+        appendEntry(clearing, type, amount, transactionId);
+    }
+
+    // The first clearing posting in a DB transaction picks the account by wallet
+    // id and later ones reuse it: a transaction that never holds two clearing
+    // rows cannot deadlock with another over them
+    private long clearingShard(long walletId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return clearingAccountFor(walletId);
+        }
+        Long bound = (Long) TransactionSynchronizationManager.getResource(clearingShardKey);
+        if (bound != null) {
+            return bound;
+        }
+        long shard = clearingAccountFor(walletId);
+        TransactionSynchronizationManager.bindResource(clearingShardKey, shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(clearingShardKey);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(clearingShardKey, shard);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(clearingShardKey);
+            }
+        });
+        return shard;
+    }
+
+    private LedgerEntry append(User wallet, WalletBalance snapshot, LedgerEntryType type,
+                               Money amount, Long transactionId) {
+        LedgerEntry entry = appendEntry(snapshot, type, amount, transactionId);
+
+        // users.wallet_balance stays as a mirror for existing readers
+        wallet.setWalletBalance(entry.getBalanceAfter());
+        return entry;
+    }
+
+    private LedgerEntry appendEntry(WalletBalance snapshot, LedgerEntryType type,
+                                    Money amount, Long transactionId) {
+        if (!amount.isPositive()) {
+            throw new IllegalArgumentException("Ledger amount must be positive");
+        }
+
+        Money balanceAfter = type == LedgerEntryType.CREDIT
+                ? snapshot.getBalance().plus(amount)
+                : snapshot.getBalance().minus(amount);
+        long sequence = snapshot.getLastSequence() + 1;
+
+        LedgerEntry entry = ledgerEntryRepository.save(new LedgerEntry(
+                snapshot.getUserId(), sequence, type, amount, balanceAfter, transactionId));
+
+        snapshot.setBalance(balanceAfter);
+        snapshot.setLastSequence(sequence);
+        walletBalanceRepository.save(snapshot);
+        return entry;
+    }
+}
@@ -1,6 +1,7 @@
 package com.revpay.service;
 
 import com.revpay.entity.LoanApplication;
+import com.revpay.entity.Money;
 import com.revpay.entity.User;
 import com.revpay.entity.enums.LoanStatus;
 import com.revpay.repository.LoanApplicationRepository;
@@ -19,7 +20,7 @@ public class LoanService {
         this.userRepository = userRepository;
     }
 
-    public LoanApplication applyLoan(Long userId, double amount) {
+    public LoanApplication applyLoan(Long userId, Money amount) {
         // Fetch User entity by userId
         User businessUser = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
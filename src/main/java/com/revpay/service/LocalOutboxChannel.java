@@ -0,0 +1,96 @@
+package com.revpay.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Offline stand-in for a real email or SMS provider.
+ *
+ * Delivered messages are kept in a bounded in-memory outbox (oldest dropped
+ * first) and, when a directory is configured, appended to
+ * {@code <dir>/<channel>-outbox.log}. A non-zero failure rate makes that
+ * share of deliveries throw, to exercise retries and dead-lettering.
+ *
+ * @since 1.1
+ */
+public class LocalOutboxChannel implements DeliveryChannel {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalOutboxChannel.class);
+
+    private final String name;
+    private final int capacity;
+    private final Path file;
+    private final double failureRate;
+    private final Deque<DeliveryMessage> outbox = new ArrayDeque<>();
+
+    /**
+     * @param directory   where to append the outbox file, or null for memory only
+     * @param failureRate share of deliveries to fail, from 0 to 1
+     */
+    public LocalOutboxChannel(String name, int capacity, Path directory, double failureRate) {
+        this.name = name;
+        this.capacity = capacity;
+        this.file = directory == null ? null : directory.resolve(name + "-outbox.log");
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void deliver(DeliveryMessage message) {
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException("Simulated " + name + " provider failure");
+        }
+        if (file != null) {
+            append(message);
+        }
+        synchronized (outbox) {
+            if (outbox.size() >= capacity) {
+                outbox.pollFirst();
+            }
+            outbox.addLast(message);
+        }
+        log.info("{} to {} | {}", name.toUpperCase(Locale.ROOT), message.getRecipient(),
+                message.getSubject() == null ? "(no subject)" : message.getSubject());
+    }
+
+    private void append(DeliveryMessage message) {
+        String line = message.getCreatedAt() + " | " + message.getRecipient() + " | " +
+                (message.getSubject() == null ? "" : message.getSubject() + " | ") +
+                message.getBody() + System.lineSeparator();
+        synchronized (this) {
+            try {
+                Files.createDirectories(file.getParent());
+                Files.writeString(file, line, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Messages delivered so far, oldest first, up to the outbox capacity.
+     */
+    public List<DeliveryMessage> getDelivered() {
+        synchronized (outbox) {
+            return new ArrayList<>(outbox);
+        }
+    }
+}
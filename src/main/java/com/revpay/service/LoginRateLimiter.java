@@ -0,0 +1,367 @@
+package com.revpay.service;
+
+import com.revpay.exception.InvalidCredentialsException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory login throttling that keeps failed attempts off the users table.
+ *
+ * Lock-striped maps absorb bursts before any DB work:
+ * <ul>
+ *   <li>per user, failed attempts within the lock window, whichever email or
+ *   phone was typed; reaching {@code revpay.login.max-attempts} locks the user
+ *   for {@code revpay.session.timeout.minutes}. Identifiers that match no user
+ *   are counted the same way under the identifier itself</li>
+ *   <li>per source, a token bucket ({@code revpay.login.source-burst},
+ *   refilled at {@code revpay.login.source-per-second}) limiting attempts of
+ *   any outcome</li>
+ * </ul>
+ * Each map holds at most {@code revpay.login.max-tracked} keys, evicting the
+ * least recently seen, so random identifiers or sources cannot grow the heap.
+ * Lockouts and post-lockout resets are queued per user and written by a
+ * background flusher as one JDBC batch every {@code revpay.login.flush-millis},
+ * so DB writes grow with the number of locked accounts, not with attack volume.
+ * Failure counts below the limit live only in memory and are lost on restart.
+ *
+ * @since 1.1
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginRateLimiter.class);
+
+    private static final int STRIPES = 64;
+
+    private static final String LOCK_SQL =
+            "update users set account_locked = true, failed_login_attempts = :attempts, locked_until = :until " +
+                    "where id = :id";
+
+    private static final String RESET_SQL =
+            "update users set account_locked = false, failed_login_attempts = 0, locked_until = null " +
+                    "where id = :id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int maxAttempts;
+    private final long lockNanos;
+    private final int sourceBurst;
+    private final double sourceTokensPerNano;
+    private final long flushMillis;
+
+    private final Stripe<Long, FailureWindow>[] userStripes;
+    private final Stripe<String, FailureWindow>[] identifierStripes;
+    private final Stripe<String, TokenBucket>[] sourceStripes;
+
+    // userId -> pending DB change; a later change for the same user replaces an earlier one
+    private final Map<Long, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong lockouts = new AtomicLong();
+    private final AtomicLong dbWrites = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private ScheduledExecutorService flusher;
+
+    private static final class Stripe<K, V> {
+        // Access-ordered so the eldest entry is the least recently seen; guarded by the stripe
+        final LinkedHashMap<K, V> entries;
+
+        Stripe(int capacity, AtomicLong evictions) {
+            entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    if (size() > capacity) {
+                        evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    private static final class FailureWindow {
+        int failures;
+        long windowStart;
+        long lockedUntil;
+    }
+
+    private static final class TokenBucket {
+        double tokens;
+        long refilledAt;
+    }
+
+    private static final class PendingWrite {
+        final boolean lock;
+        final int attempts;
+        final LocalDateTime until;
+
+        PendingWrite(boolean lock, int attempts, LocalDateTime until) {
+            this.lock = lock;
+            this.attempts = attempts;
+            this.until = until;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public LoginRateLimiter(NamedParameterJdbcTemplate jdbcTemplate,
+                            @Value("${revpay.login.max-attempts}") int maxAttempts,
+                            @Value("${revpay.session.timeout.minutes}") long lockMinutes,
+                            @Value("${revpay.login.source-burst:20}") int sourceBurst,
+                            @Value("${revpay.login.source-per-second:5}") double sourcePerSecond,
+                            @Value("${revpay.login.flush-millis:1000}") long flushMillis,
+                            @Value("${revpay.login.max-tracked:100000}") int maxTracked) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxAttempts = maxAttempts;
+        this.lockNanos = TimeUnit.MINUTES.toNanos(lockMinutes);
+        this.sourceBurst = sourceBurst;
+        this.sourceTokensPerNano = sourcePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.flushMillis = flushMillis;
+
+        int stripeCapacity = Math.max(1, maxTracked / STRIPES);
+        this.userStripes = new Stripe[STRIPES];
+        this.identifierStripes = new Stripe[STRIPES];
+        this.sourceStripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            userStripes[i] = new Stripe<>(stripeCapacity, evictions);
+            identifierStripes[i] = new Stripe<>(stripeCapacity, evictions);
+            sourceStripes[i] = new Stripe<>(stripeCapacity, evictions);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "login-lockout-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAndPrune, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdown();
+        flush();
+    }
+
+    /**
+     * Admits one login attempt, before the user is looked up.
+     *
+     * @throws InvalidCredentialsException if the source is over its rate or an unknown identifier is locked out
+     * @since 1.1
+     */
+    public void checkAllowed(String identifier, String source) {
+        attempts.incrementAndGet();
+        long now = System.nanoTime();
+
+        String sourceKey = source == null ? "" : source;
+        Stripe<String, TokenBucket> sourceStripe = stripe(sourceStripes, sourceKey);
+        synchronized (sourceStripe) {
+            TokenBucket bucket = sourceStripe.entries.computeIfAbsent(sourceKey, k -> {
+                TokenBucket b = new TokenBucket();
+                b.tokens = sourceBurst;
+                b.refilledAt = now;
+                return b;
+            });
+            bucket.tokens = Math.min(sourceBurst, bucket.tokens + (now - bucket.refilledAt) * sourceTokensPerNano);
+            bucket.refilledAt = now;
+            if (bucket.tokens < 1) {
+                throttled.incrementAndGet();
+                throw new InvalidCredentialsException("Too many login attempts. Please try again later.");
+            }
+            bucket.tokens -= 1;
+        }
+
+        checkNotLocked(identifierStripes, normalize(identifier), now);
+    }
+
+    /**
+     * Rejects a user locked out by failures under any of their identifiers,
+     * once the identifier has been resolved.
+     *
+     * @throws InvalidCredentialsException if the user is locked out
+     * @since 1.1
+     */
+    public void checkAllowed(Long userId) {
+        checkNotLocked(userStripes, userId, System.nanoTime());
+    }
+
+    /**
+     * Records a wrong password against the user, or against the typed
+     * identifier when it matches no user (null user id).
+     *
+     * @return failed attempts in the current window, including this one
+     * @since 1.1
+     */
+    public int recordFailure(String identifier, Long userId) {
+        long now = System.nanoTime();
+        int failures = userId != null
+                ? countFailure(userStripes, userId, now)
+                : countFailure(identifierStripes, normalize(identifier), now);
+
+        if (failures >= maxAttempts && userId != null) {
+            lockouts.incrementAndGet();
+            LocalDateTime until = LocalDateTime.now().plusNanos(lockNanos);
+            pendingWrites.put(userId, new PendingWrite(true, failures, until));
+        }
+        return failures;
+    }
+
+    /**
+     * Clears the user's failures and, if the stored row still carries an
+     * expired lockout or a failure count, queues a reset of that row.
+     *
+     * @param storedStateDirty whether the users row shows a lock or failures
+     * @since 1.1
+     */
+    public void recordSuccess(Long userId, boolean storedStateDirty) {
+        Stripe<Long, FailureWindow> stripe = stripe(userStripes, userId);
+        synchronized (stripe) {
+            stripe.entries.remove(userId);
+        }
+        if (storedStateDirty) {
+            pendingWrites.put(userId, new PendingWrite(false, 0, null));
+        }
+    }
+
+    private <K> void checkNotLocked(Stripe<K, FailureWindow>[] stripes, K key, long now) {
+        Stripe<K, FailureWindow> stripe = stripe(stripes, key);
+        synchronized (stripe) {
+            FailureWindow window = stripe.entries.get(key);
+            if (window != null && window.lockedUntil != 0 && now - window.lockedUntil < 0) {
+                throttled.incrementAndGet();
+                throw new InvalidCredentialsException("Account is locked due to multiple failed login attempts.");
+            }
+        }
+    }
+
+    private <K> int countFailure(Stripe<K, FailureWindow>[] stripes, K key, long now) {
+        Stripe<K, FailureWindow> stripe = stripe(stripes, key);
+        synchronized (stripe) {
+            FailureWindow window = stripe.entries.computeIfAbsent(key, k -> new FailureWindow());
+            if (window.failures == 0 || now - window.windowStart > lockNanos) {
+                window.failures = 0;
+                window.windowStart = now;
+                window.lockedUntil = 0;
+            }
+            int failures = ++window.failures;
+            if (failures >= maxAttempts) {
+                window.lockedUntil = now + lockNanos;
+            }
+            return failures;
+        }
+    }
+
+    private void flushAndPrune() {
+        try {
+            flush();
+            prune();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush login lockout state", e);
+        }
+    }
+
+    private void flush() {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+        List<MapSqlParameterSource> locks = new ArrayList<>();
+        List<MapSqlParameterSource> resets = new ArrayList<>();
+        for (Map.Entry<Long, PendingWrite> entry : pendingWrites.entrySet()) {
+            PendingWrite write = entry.getValue();
+            // Leave a write queued after this one was read for the next flush
+            if (!pendingWrites.remove(entry.getKey(), write)) {
+                continue;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource("id", entry.getKey());
+            if (write.lock) {
+                locks.add(params.addValue("attempts", write.attempts)
+                        .addValue("until", Timestamp.valueOf(write.until)));
+            } else {
+                resets.add(params);
+            }
+        }
+        if (!locks.isEmpty()) {
+            jdbcTemplate.batchUpdate(LOCK_SQL, locks.toArray(new MapSqlParameterSource[0]));
+        }
+        if (!resets.isEmpty()) {
+            jdbcTemplate.batchUpdate(RESET_SQL, resets.toArray(new MapSqlParameterSource[0]));
+        }
+        dbWrites.addAndGet(locks.size() + resets.size());
+    }
+
+    // Drops failure windows whose window and lockout have passed and sources with full buckets
+    private void prune() {
+        long now = System.nanoTime();
+        pruneFailures(userStripes, now);
+        pruneFailures(identifierStripes, now);
+        for (Stripe<String, TokenBucket> stripe : sourceStripes) {
+            synchronized (stripe) {
+                stripe.entries.values().removeIf(b ->
+                        b.tokens + (now - b.refilledAt) * sourceTokensPerNano >= sourceBurst);
+            }
+        }
+    }
+
+    private <K> void pruneFailures(Stripe<K, FailureWindow>[] stripes, long now) {
+        for (Stripe<K, FailureWindow> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.entries.values().removeIf(w -> now - w.windowStart > lockNanos
+                        && (w.lockedUntil == 0 || now - w.lockedUntil > 0));
+            }
+        }
+    }
+
+    private static <K, V> Stripe<K, V> stripe(Stripe<K, V>[] stripes, K key) {
+        return stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private static String normalize(String identifier) {
+        return identifier == null ? "" : identifier.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public long getAttempts() {
+        return attempts.get();
+    }
+
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    public long getLockouts() {
+        return lockouts.get();
+    }
+
+    public long getDbWrites() {
+        return dbWrites.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int getPendingWrites() {
+        return pendingWrites.size();
+    }
+}
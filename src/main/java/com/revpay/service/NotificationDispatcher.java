@@ -0,0 +1,198 @@
+package com.revpay.service;
+
+import com.revpay.entity.User;
+import com.revpay.entity.enums.NotificationType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves notification persistence off the request thread.
+ *
+ * Callers enqueue into a bounded queue and return immediately; a single worker
+ * drains it, drops types the user has disabled, and writes the rest with one
+ * JDBC batch INSERT per drain. When the queue is full the notification is
+ * dropped and counted rather than blocking a payment.
+ *
+ * @since 1.1
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final String INSERT_SQL =
+            "insert into notifications (user_id, type, message, read_status, created_at) " +
+                    "values (:userId, :type, :message, false, :createdAt)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NotificationPreferenceStore preferenceStore;
+    private final UnreadNotificationCounter unreadCounter;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long pollMillis;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong filtered = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    // Enqueue-to-write latency of every notification persisted or filtered out
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    private static final class Pending {
+        final User user;
+        final NotificationType type;
+        final String message;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        final long enqueuedAt = System.nanoTime();
+
+        Pending(User user, NotificationType type, String message) {
+            this.user = user;
+            this.type = type;
+            this.message = message;
+        }
+    }
+
+    public NotificationDispatcher(NamedParameterJdbcTemplate jdbcTemplate,
+                                  NotificationPreferenceStore preferenceStore,
+                                  UnreadNotificationCounter unreadCounter,
+                                  @Value("${revpay.notifications.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${revpay.notifications.batch-size:200}") int batchSize,
+                                  @Value("${revpay.notifications.poll-millis:250}") long pollMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.preferenceStore = preferenceStore;
+        this.unreadCounter = unreadCounter;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "notification-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        if (!queue.isEmpty()) {
+            log.warn("Notification dispatcher stopped with {} notifications still queued", queue.size());
+        }
+    }
+
+    /**
+     * Queues a notification without blocking.
+     *
+     * @return false if the queue was full and the notification was dropped
+     * @since 1.1
+     */
+    public boolean enqueue(User user, NotificationType type, String message) {
+        if (queue.offer(new Pending(user, type, message))) {
+            enqueued.incrementAndGet();
+            return true;
+        }
+        dropped.incrementAndGet();
+        log.warn("Notification queue full, dropped {} notification for user {}", type, user.getId());
+        return false;
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                persist(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                failed.addAndGet(batch.size());
+                log.error("Failed to persist {} notifications", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void persist(List<Pending> batch) {
+        List<MapSqlParameterSource> rows = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            if (!preferenceStore.isEnabled(pending.user, pending.type)) {
+                filtered.incrementAndGet();
+                continue;
+            }
+            rows.add(new MapSqlParameterSource()
+                    .addValue("userId", pending.user.getId())
+                    .addValue("type", pending.type.name())
+                    .addValue("message", pending.message)
+                    .addValue("createdAt", Timestamp.valueOf(pending.createdAt)));
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows.toArray(new MapSqlParameterSource[0]));
+            persisted.addAndGet(rows.size());
+            for (MapSqlParameterSource row : rows) {
+                unreadCounter.add((Long) row.getValue("userId"), 1);
+            }
+        }
+
+        long now = System.nanoTime();
+        for (Pending pending : batch) {
+            latency.record(now - pending.enqueuedAt);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getEnqueued() {
+        return enqueued.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getFiltered() {
+        return filtered.get();
+    }
+
+    public long getPersisted() {
+        return persisted.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+}
@@ -0,0 +1,146 @@
+package com.revpay.service;
+
+import com.revpay.entity.NotificationPreference;
+import com.revpay.entity.enums.NotificationType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * One-off move of legacy preferences out of the notifications table.
+ *
+ * Preferences used to be a notification row of type PREFERENCE holding a CSV
+ * list of enabled types. At startup this job converts any such rows into
+ * notification_preferences masks and deletes them, {@code chunk-size} rows
+ * per transaction. A user who already has a preference row keeps it. Once no
+ * PREFERENCE rows remain the job is a single empty query.
+ *
+ * @since 1.1
+ */
+@Service
+public class NotificationPreferenceMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationPreferenceMigration.class);
+
+    // Newest first, so the latest row wins if a user has several
+    private static final String SELECT_CHUNK_SQL =
+            "select id, user_id, message from notifications where type = 'PREFERENCE' order by id desc limit :limit";
+
+    private static final String INSERT_SQL =
+            "insert ignore into notification_preferences (user_id, enabled_mask, updated_at) " +
+                    "values (:userId, :mask, :updatedAt)";
+
+    private static final String DELETE_SQL = "delete from notifications where id in (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationPreferenceStore preferenceStore;
+
+    @Value("${revpay.notifications.preference-migration.chunk-size:1000}")
+    private int chunkSize;
+
+    private static final class LegacyRow {
+        final long id;
+        final long userId;
+        final String message;
+
+        LegacyRow(long id, long userId, String message) {
+            this.id = id;
+            this.userId = userId;
+            this.message = message;
+        }
+    }
+
+    public NotificationPreferenceMigration(NamedParameterJdbcTemplate jdbcTemplate,
+                                           PlatformTransactionManager transactionManager,
+                                           NotificationPreferenceStore preferenceStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.preferenceStore = preferenceStore;
+    }
+
+    // Runs before the console listener, which blocks the startup thread
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void migrateOnStartup() {
+        try {
+            migrate();
+        } catch (RuntimeException e) {
+            log.error("Notification preference migration failed; it will resume on the next start", e);
+        }
+    }
+
+    /**
+     * Converts and deletes every remaining PREFERENCE notification row.
+     *
+     * @return number of legacy rows migrated
+     * @since 1.1
+     */
+    public synchronized long migrate() {
+        long total = 0;
+        while (true) {
+            List<LegacyRow> rows = transactionTemplate.execute(status -> {
+                List<LegacyRow> chunk = jdbcTemplate.query(SELECT_CHUNK_SQL,
+                        new MapSqlParameterSource("limit", chunkSize),
+                        (rs, i) -> new LegacyRow(rs.getLong(1), rs.getLong(2), rs.getString(3)));
+                if (chunk.isEmpty()) {
+                    return chunk;
+                }
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                List<MapSqlParameterSource> inserts = new ArrayList<>(chunk.size());
+                List<Long> ids = new ArrayList<>(chunk.size());
+                for (LegacyRow row : chunk) {
+                    inserts.add(new MapSqlParameterSource("userId", row.userId)
+                            .addValue("mask", parse(row))
+                            .addValue("updatedAt", now));
+                    ids.add(row.id);
+                }
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts.toArray(new MapSqlParameterSource[0]));
+                jdbcTemplate.update(DELETE_SQL, new MapSqlParameterSource("ids", ids));
+                return chunk;
+            });
+            if (rows == null || rows.isEmpty()) {
+                break;
+            }
+            for (LegacyRow row : rows) {
+                preferenceStore.invalidate(row.userId);
+            }
+            total += rows.size();
+        }
+        if (total > 0) {
+            log.info("Migrated {} notification preference rows", total);
+        }
+        return total;
+    }
+
+    // Same rules as the old CSV reader: empty means defaults; unknown names are skipped
+    private static int parse(LegacyRow row) {
+        if (row.message == null || row.message.isBlank()) {
+            return NotificationPreference.DEFAULT_MASK;
+        }
+        EnumSet<NotificationType> types = EnumSet.noneOf(NotificationType.class);
+        for (String name : row.message.split(",")) {
+            try {
+                types.add(NotificationType.valueOf(name.trim()));
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping unknown notification type '{}' in preferences of user {}", name, row.userId);
+            }
+        }
+        return NotificationPreference.toMask(types);
+    }
+}
@@ -0,0 +1,125 @@
+package com.revpay.service;
+
+import com.revpay.entity.NotificationPreference;
+import com.revpay.entity.User;
+import com.revpay.entity.enums.NotificationType;
+import com.revpay.repository.NotificationPreferenceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-user notification preferences as a bitmask in notification_preferences,
+ * behind a size-bounded read-through cache of the mask.
+ *
+ * Once a user's mask is cached, {@link #isEnabled} is a map lookup and a bit
+ * test with no DB round trip. At most
+ * {@code revpay.notifications.preferences.cache-size} masks are cached,
+ * evicting the least recently used. Saving upserts the row and replaces the
+ * cached mask.
+ *
+ * @since 1.1
+ */
+@Component
+public class NotificationPreferenceStore {
+
+    private static final String UPSERT_SQL =
+            "insert into notification_preferences (user_id, enabled_mask, updated_at) " +
+                    "values (:userId, :mask, :updatedAt) " +
+                    "on duplicate key update enabled_mask = values(enabled_mask), updated_at = values(updated_at)";
+
+    private final NotificationPreferenceRepository preferenceRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int maxSize;
+
+    // Access-ordered so the eldest entry is the least recently used; guarded by `this`
+    private final LinkedHashMap<Long, Integer> masks = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    // Bumped by every save and invalidation, so a load that raced one is not cached; guarded by `this`
+    private long changes;
+
+    public NotificationPreferenceStore(NotificationPreferenceRepository preferenceRepository,
+                                       NamedParameterJdbcTemplate jdbcTemplate,
+                                       @Value("${revpay.notifications.preferences.cache-size:10000}") int maxSize) {
+        this.preferenceRepository = preferenceRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Enabled notification types for a user; all types except PREFERENCE when none are saved.
+     *
+     * @param user the user
+     * @return unmodifiable set of enabled types
+     * @since 1.1
+     */
+    public Set<NotificationType> get(User user) {
+        return Collections.unmodifiableSet(NotificationPreference.toTypes(mask(user.getId())));
+    }
+
+    public boolean isEnabled(User user, NotificationType type) {
+        return (mask(user.getId()) & NotificationPreference.bit(type)) != 0;
+    }
+
+    /**
+     * Saves a user's enabled types, replacing any previous preferences.
+     *
+     * @param user         the user
+     * @param enabledTypes types to enable; PREFERENCE is ignored
+     * @since 1.1
+     */
+    public void save(User user, Set<NotificationType> enabledTypes) {
+        int mask = NotificationPreference.toMask(enabledTypes);
+        jdbcTemplate.update(UPSERT_SQL, new MapSqlParameterSource()
+                .addValue("userId", user.getId())
+                .addValue("mask", mask)
+                .addValue("updatedAt", Timestamp.valueOf(LocalDateTime.now())));
+        synchronized (this) {
+            changes++;
+            masks.put(user.getId(), mask);
+        }
+    }
+
+    /**
+     * Forgets a user's cached mask, e.g. after the row was changed outside this store.
+     *
+     * @param userId the user id
+     * @since 1.1
+     */
+    public synchronized void invalidate(Long userId) {
+        changes++;
+        masks.remove(userId);
+    }
+
+    private int mask(Long userId) {
+        long seen;
+        synchronized (this) {
+            Integer cached = masks.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            seen = changes;
+        }
+        // Outside the lock, so one slow query does not stall every other lookup
+        int mask = preferenceRepository.findMaskByUserId(userId).orElse(NotificationPreference.DEFAULT_MASK);
+        synchronized (this) {
+            if (changes == seen) {
+                masks.put(userId, mask);
+            }
+        }
+        return mask;
+    }
+}
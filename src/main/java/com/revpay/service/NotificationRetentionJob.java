@@ -0,0 +1,154 @@
+package com.revpay.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves read notifications older than {@code read-age-days} into
+ * notifications_archive, keeping the live inbox table small.
+ *
+ * Each pass works in chunks of {@code chunk-size} rows; a chunk is copied and
+ * deleted in one DB transaction, so a row is never in both tables or in
+ * neither. Unread notifications and the PREFERENCE row are never archived.
+ * The first pass runs once the application is ready, then every
+ * {@code interval-hours}.
+ *
+ * @since 1.1
+ */
+@Service
+public class NotificationRetentionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionJob.class);
+
+    private static final String SELECT_CHUNK_SQL =
+            "select id from notifications " +
+                    "where read_status = true and created_at < :cutoff and type <> 'PREFERENCE' " +
+                    "order by created_at, id limit :limit";
+
+    private static final String ARCHIVE_SQL =
+            "insert into notifications_archive (id, user_id, type, message, created_at, archived_at) " +
+                    "select id, user_id, type, message, created_at, :archivedAt from notifications " +
+                    "where id in (:ids) and read_status = true";
+
+    private static final String DELETE_SQL =
+            "delete from notifications where id in (:ids) and read_status = true";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${revpay.notifications.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${revpay.notifications.retention.read-age-days:90}")
+    private int readAgeDays;
+
+    @Value("${revpay.notifications.retention.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${revpay.notifications.retention.interval-hours:24}")
+    private long intervalHours;
+
+    private final AtomicLong archived = new AtomicLong();
+    private final AtomicLong passes = new AtomicLong();
+
+    private volatile boolean stopRequested;
+    private ScheduledExecutorService scheduler;
+
+    public NotificationRetentionJob(NamedParameterJdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Runs before the console listener, which blocks the startup thread
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void startIfEnabled() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "notification-retention");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, 0, intervalHours, TimeUnit.HOURS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopRequested = true;
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    private void runSafely() {
+        try {
+            archiveReadNotifications();
+        } catch (RuntimeException e) {
+            log.error("Notification archiving failed; it will retry on the next pass", e);
+        }
+    }
+
+    /**
+     * Archives every read notification created before the retention cutoff.
+     *
+     * @return number of notifications archived by this pass
+     * @since 1.1
+     */
+    public synchronized long archiveReadNotifications() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(readAgeDays));
+        long total = 0;
+        while (!stopRequested) {
+            Integer moved = transactionTemplate.execute(status -> {
+                List<Long> ids = jdbcTemplate.queryForList(SELECT_CHUNK_SQL,
+                        new MapSqlParameterSource("cutoff", cutoff).addValue("limit", chunkSize), Long.class);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                        .addValue("archivedAt", Timestamp.valueOf(LocalDateTime.now()));
+                jdbcTemplate.update(ARCHIVE_SQL, params);
+                return jdbcTemplate.update(DELETE_SQL, params);
+            });
+            if (moved == null || moved == 0) {
+                break;
+            }
+            total += moved;
+            archived.addAndGet(moved);
+        }
+        passes.incrementAndGet();
+        if (total > 0) {
+            log.info("Archived {} read notifications older than {} days", total, readAgeDays);
+        }
+        return total;
+    }
+
+    public long getArchived() {
+        return archived.get();
+    }
+
+    public long getPasses() {
+        return passes.get();
+    }
+}
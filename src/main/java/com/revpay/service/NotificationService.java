@@ -5,13 +5,15 @@ import com.revpay.entity.Notification;
 import com.revpay.entity.User;
 import com.revpay.entity.enums.NotificationType;
 import com.revpay.repository.NotificationRepository;
+import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class NotificationService {
@@ -19,7 +21,18 @@ public class NotificationService {
     @Autowired
     private NotificationRepository notificationRepository;
 
-    private static final String PREF_SEPARATOR = ",";
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private NotificationPreferenceStore notificationPreferenceStore;
+
+    @Autowired
+    private UnreadNotificationCounter unreadNotificationCounter;
+
+    @Autowired
+    private DeliveryEngine deliveryEngine;
+
     private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
 
     // Fetch all or only unread notifications for a user, ordered newest first
@@ -30,6 +43,44 @@ public class NotificationService {
         return notificationRepository.findByUserOrderByCreatedAtDesc(user);
     }
 
+    /**
+     * One page of the inbox, newest first.
+     *
+     * @param lastSeen last notification of the previous page, or null for the first page
+     * @param pageSize maximum number of rows to return
+     * @since 1.1
+     */
+    public List<Notification> getInboxPage(User user, boolean onlyUnread, Notification lastSeen, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        LocalDateTime beforeCreatedAt = lastSeen != null ? lastSeen.getCreatedAt() : null;
+        Long beforeId = lastSeen != null ? lastSeen.getId() : null;
+        PageRequest page = PageRequest.of(0, pageSize);
+        return onlyUnread
+                ? notificationRepository.findUnreadInboxPage(user, beforeCreatedAt, beforeId, page)
+                : notificationRepository.findInboxPage(user, beforeCreatedAt, beforeId, page);
+    }
+
+    // Single UPDATE; returns how many notifications changed
+    @Transactional
+    public int markAllRead(User user) {
+        int updated = notificationRepository.markAllRead(user.getId());
+        unreadNotificationCounter.add(user.getId(), -updated);
+        return updated;
+    }
+
+    // Single UPDATE; ids that are not the user's or already read are skipped
+    @Transactional
+    public int markRead(User user, Collection<Long> notificationIds) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            return 0;
+        }
+        int updated = notificationRepository.markRead(user.getId(), notificationIds);
+        unreadNotificationCounter.add(user.getId(), -updated);
+        return updated;
+    }
+
     // Mark a notification as read by id for the user
     public void markAsRead(Long notificationId, User currentUser) {
         Notification notification = notificationRepository.findById(notificationId)
@@ -40,8 +91,13 @@ public class NotificationService {
             throw new RuntimeException("Unauthorized access");
         }
 
-        notification.setReadStatus(true);
-        notificationRepository.save(notification);
+        if (!notification.isReadStatus()) {
+            notification.setReadStatus(true);
+            notificationRepository.save(notification);
+            if (notification.getType() != NotificationType.PREFERENCE) {
+                unreadNotificationCounter.add(currentUser.getId(), -1);
+            }
+        }
     }
 
 
@@ -55,21 +111,24 @@ public class NotificationService {
             throw new RuntimeException("Unauthorized access");
         }
 
-        notification.setReadStatus(false);
-        notificationRepository.save(notification);
+        if (notification.isReadStatus()) {
+            notification.setReadStatus(false);
+            notificationRepository.save(notification);
+            if (notification.getType() != NotificationType.PREFERENCE) {
+                unreadNotificationCounter.add(currentUser.getId(), 1);
+            }
+        }
     }
 
-
-    // Send a notification to user (no preference check)
+    // Unread count for the menu badge; a map lookup once the user's count is loaded
+    public long getUnreadCount(User user) {
+        return unreadNotificationCounter.get(user.getId());
+    }
 
 
+    // Queue a notification for the user; persisted asynchronously if the type is enabled
     public void sendNotification(User user, NotificationType type, String message) {
-        Notification notification = new Notification();
-        notification.setUser(user);
-        notification.setType(type);
-        notification.setMessage(message);
-        notification.setReadStatus(false);
-        notificationRepository.save(notification);
+        notificationDispatcher.enqueue(user, type, message);
     }
     /**
      * Helper method to notify user with default notification type (e.g., ALERT)
@@ -82,75 +141,33 @@ public class NotificationService {
     // --- Preference management below ---
 
     /**
-     * Fetch user notification preferences from special notification record.
-     * If none found, default to enabling all types except PREFERENCE itself.
+     * Fetch user notification preferences from the preference store (cached).
+     * If none saved, default to enabling all types except PREFERENCE itself.
      */
     public Set<NotificationType> getUserNotificationPreferences(User user) {
-        Notification prefNotification = notificationRepository
-                .findByUserAndType(user, NotificationType.PREFERENCE)
-                .orElse(null);
-
-        if (prefNotification == null || prefNotification.getMessage() == null || prefNotification.getMessage().isEmpty()) {
-            // No prefs saved - return all enabled by default except PREFERENCE
-            return EnumSet.allOf(NotificationType.class).stream()
-                    .filter(t -> t != NotificationType.PREFERENCE)
-                    .collect(Collectors.toSet());
-        }
-
-        String[] enabledTypes = prefNotification.getMessage().split(PREF_SEPARATOR);
-        return Arrays.stream(enabledTypes)
-                .map(String::trim)
-                .map(NotificationType::valueOf)
-                .collect(Collectors.toSet());
+        return notificationPreferenceStore.get(user);
     }
 
     /**
-     * Update user notification preferences by saving a special notification record
-     * with type PREFERENCE and CSV list of enabled notification types in message field.
+     * Update user notification preferences; PREFERENCE itself is never stored as enabled.
      */
     public void updateUserNotificationPreferences(User user, Set<NotificationType> enabledTypes) {
-        Notification prefNotification = notificationRepository
-                .findByUserAndType(user, NotificationType.PREFERENCE)
-                .orElse(null);
-
-        if (prefNotification == null) {
-            prefNotification = new Notification();
-            prefNotification.setUser(user);
-            prefNotification.setType(NotificationType.PREFERENCE);
-        }
-
-        String message = enabledTypes.stream()
-                .filter(t -> t != NotificationType.PREFERENCE) // exclude PREFERENCE itself
-                .map(Enum::name)
-                .collect(Collectors.joining(PREF_SEPARATOR));
-
-        prefNotification.setMessage(message);
-        prefNotification.setReadStatus(true); // mark read to distinguish from real notifications
-        notificationRepository.save(prefNotification);
+        notificationPreferenceStore.save(user, enabledTypes);
     }
-    public void send2FACode(User user, String code) {
 
+    /**
+     * Queues the 2FA code for email, or SMS if the user has no email, and
+     * returns without waiting for delivery.
+     */
+    public void send2FACode(User user, String code) {
+        String body = "Your RevPay 2FA code is: " + code;
         if (user.getEmail() != null && !user.getEmail().isEmpty()) {
-            sendEmail(
-                    user.getEmail(),
-                    "RevPay Login Verification",
-                    "Your RevPay 2FA code is: " + code
-            );
+            deliveryEngine.enqueue(new DeliveryMessage(DeliveryChannel.EMAIL, user.getEmail(),
+                    "RevPay Login Verification", body));
         } else if (user.getPhone() != null && !user.getPhone().isEmpty()) {
-            sendSms(
-                    user.getPhone(),
-                    "Your RevPay 2FA code is: " + code
-            );
+            deliveryEngine.enqueue(new DeliveryMessage(DeliveryChannel.SMS, user.getPhone(), null, body));
+        } else {
+            log.warn("User {} has no email or phone for 2FA delivery", user.getId());
         }
     }
-
-    private void sendEmail(String to, String subject, String body) {
-        log.info("📧 EMAIL to {} | {} | {}", to, subject, body);
-    }
-
-    private void sendSms(String phone, String message) {
-        log.info("📱 SMS to {} | {}", phone, message);
-    }
-
-
 }
@@ -0,0 +1,26 @@
+package com.revpay.service;
+
+/**
+ * Holds one-time 2FA codes between issue and verification.
+ *
+ * {@link InMemoryOtpStore} serves a single node; when several nodes share
+ * logins, register a shared implementation as a {@code @Primary} bean.
+ *
+ * @since 1.1
+ */
+public interface OtpStore {
+
+    /**
+     * Stores a code for a user, replacing any earlier one and resetting its attempt count.
+     */
+    void put(Long userId, String code);
+
+    /**
+     * Checks a code. A match consumes it; so does running out of attempts.
+     *
+     * @return true only for an unexpired code that matches within the attempt limit
+     */
+    boolean verify(Long userId, String code);
+
+    void remove(Long userId);
+}
@@ -0,0 +1,317 @@
+package com.revpay.service;
+
+import com.revpay.entity.KeyRotationCheckpoint;
+import com.revpay.repository.KeyRotationCheckpointRepository;
+import com.revpay.security.EncryptionUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-encrypts stored card and bank account numbers under the current key.
+ *
+ * The job walks payment_methods in id ranges of {@code chunk-size}. Each range
+ * is read with one query, decrypted and re-encrypted by a small worker pool,
+ * and written back with one JDBC batch UPDATE in the same DB transaction that
+ * advances the checkpoint, so a restarted job resumes after the last committed
+ * range. An UPDATE only applies if the row still holds the value that was read,
+ * so concurrent edits are never overwritten. Rows that cannot be decrypted
+ * are logged and skipped for this run, but the checkpoint is held just before
+ * the first of them, so the next run retries them and the job is not marked
+ * completed while any row is still on an old key. Throughput is capped at
+ * {@code max-rows-per-second} to leave headroom for live payments.
+ *
+ * Old keys must stay listed in {@code revpay.security.aes.retired-secrets}
+ * until the job reports completion.
+ *
+ * @since 1.1
+ */
+@Service
+public class PaymentMethodKeyRotationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentMethodKeyRotationJob.class);
+
+    private static final String MAX_ID_SQL = "select max(id) from payment_methods";
+
+    private static final String SELECT_RANGE_SQL =
+            "select id, encrypted_card_number, encrypted_bank_account_number from payment_methods " +
+                    "where id > :fromId and id <= :toId order by id";
+
+    private static final String UPDATE_SQL =
+            "update payment_methods " +
+                    "set encrypted_card_number = :newCard, encrypted_bank_account_number = :newBank " +
+                    "where id = :id " +
+                    "and (encrypted_card_number = :oldCard or (encrypted_card_number is null and :oldCard is null)) " +
+                    "and (encrypted_bank_account_number = :oldBank or (encrypted_bank_account_number is null and :oldBank is null))";
+
+    private final EncryptionUtil encryptionUtil;
+    private final KeyRotationCheckpointRepository checkpointRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${revpay.key-rotation.enabled:false}")
+    private boolean enabled;
+
+    @Value("${revpay.key-rotation.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${revpay.key-rotation.workers:4}")
+    private int workerCount;
+
+    @Value("${revpay.key-rotation.max-rows-per-second:200}")
+    private int maxRowsPerSecond;
+
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong rotated = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    private volatile boolean stopRequested;
+    private Thread runner;
+
+    private static final class Row {
+        final long id;
+        final String card;
+        final String bank;
+
+        Row(long id, String card, String bank) {
+            this.id = id;
+            this.card = card;
+            this.bank = bank;
+        }
+    }
+
+    public PaymentMethodKeyRotationJob(EncryptionUtil encryptionUtil,
+                                       KeyRotationCheckpointRepository checkpointRepository,
+                                       NamedParameterJdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager) {
+        this.encryptionUtil = encryptionUtil;
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Runs before the console listener, which blocks the startup thread
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void startIfEnabled() {
+        if (!enabled) {
+            return;
+        }
+        runner = new Thread(() -> {
+            try {
+                rotate();
+            } catch (RuntimeException e) {
+                log.error("Payment method key rotation failed; it will resume from its checkpoint", e);
+            }
+        }, "payment-method-key-rotation");
+        runner.setDaemon(true);
+        runner.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopRequested = true;
+        if (runner != null) {
+            runner.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    /**
+     * Re-encrypts every payment method not yet on the current key version,
+     * starting after the last checkpoint.
+     *
+     * @return the checkpoint after this run; completed unless the job was stopped
+     *         or some rows could not be re-encrypted
+     * @since 1.1
+     */
+    public synchronized KeyRotationCheckpoint rotate() {
+        String jobName = "payment_methods:v" + encryptionUtil.getKeyVersion();
+        KeyRotationCheckpoint checkpoint = checkpointRepository.findById(jobName)
+                .orElseGet(() -> new KeyRotationCheckpoint(jobName));
+        if (checkpoint.isCompleted()) {
+            log.info("Key rotation {} already completed", jobName);
+            return checkpoint;
+        }
+
+        Long maxId = jdbcTemplate.queryForObject(MAX_ID_SQL, Map.of(), Long.class);
+        long endId = maxId == null ? 0 : maxId;
+        log.info("Key rotation {} starting after id {} up to id {}", jobName, checkpoint.getLastId(), endId);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "key-rotation-worker-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        long startedAt = System.nanoTime();
+        long scannedThisRun = 0;
+        long failedThisRun = 0;
+        // Once a row fails the checkpoint stays just before it; the scan goes on
+        long cursor = checkpoint.getLastId();
+        Long resumeAfter = null;
+        try {
+            while (!stopRequested && cursor < endId) {
+                long fromId = cursor;
+                long toId = Math.min(fromId + chunkSize, endId);
+
+                List<Row> rows = jdbcTemplate.query(SELECT_RANGE_SQL,
+                        new MapSqlParameterSource("fromId", fromId).addValue("toId", toId),
+                        (rs, i) -> new Row(rs.getLong(1), rs.getString(2), rs.getString(3)));
+                Queue<Long> failedIds = new ConcurrentLinkedQueue<>();
+                List<MapSqlParameterSource> updates = reEncrypt(rows, workers, failedIds);
+                if (!failedIds.isEmpty()) {
+                    failedThisRun += failedIds.size();
+                    if (resumeAfter == null) {
+                        resumeAfter = Collections.min(failedIds) - 1;
+                    }
+                }
+                long checkpointId = resumeAfter == null ? toId : resumeAfter;
+
+                KeyRotationCheckpoint current = checkpoint;
+                checkpoint = transactionTemplate.execute(status -> {
+                    int applied = 0;
+                    if (!updates.isEmpty()) {
+                        for (int count : jdbcTemplate.batchUpdate(UPDATE_SQL, updates.toArray(new MapSqlParameterSource[0]))) {
+                            applied += count == 0 ? 0 : 1;
+                        }
+                    }
+                    conflicts.addAndGet(updates.size() - applied);
+                    rotated.addAndGet(applied);
+                    current.setLastId(checkpointId);
+                    current.setRowsRotated(current.getRowsRotated() + applied);
+                    return checkpointRepository.save(current);
+                });
+
+                cursor = toId;
+                scanned.addAndGet(rows.size());
+                scannedThisRun += rows.size();
+                throttle(scannedThisRun, startedAt);
+            }
+
+            if (stopRequested) {
+                log.info("Key rotation {} stopped at id {}", jobName, checkpoint.getLastId());
+            } else if (failedThisRun > 0) {
+                log.warn("Key rotation {} not completed: {} rows could not be re-encrypted; the next run resumes after id {}. "
+                        + "Keep the retired keys configured until it completes", jobName, failedThisRun, checkpoint.getLastId());
+            } else {
+                checkpoint.setCompleted(true);
+                checkpoint = checkpointRepository.save(checkpoint);
+                log.info("Key rotation {} completed: {} rows re-encrypted, {} skipped after concurrent changes",
+                        jobName, checkpoint.getRowsRotated(), conflicts.get());
+            }
+            return checkpoint;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Key rotation {} interrupted at id {}", jobName, checkpoint.getLastId());
+            return checkpoint;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private List<MapSqlParameterSource> reEncrypt(List<Row> rows, ExecutorService workers, Queue<Long> failedIds)
+            throws InterruptedException {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        int sliceSize = (rows.size() + workerCount - 1) / workerCount;
+        List<Future<List<MapSqlParameterSource>>> slices = new ArrayList<>();
+        for (int start = 0; start < rows.size(); start += sliceSize) {
+            List<Row> slice = rows.subList(start, Math.min(start + sliceSize, rows.size()));
+            slices.add(workers.submit(() -> reEncryptSlice(slice, failedIds)));
+        }
+
+        List<MapSqlParameterSource> updates = new ArrayList<>(rows.size());
+        for (Future<List<MapSqlParameterSource>> slice : slices) {
+            try {
+                updates.addAll(slice.get());
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Re-encryption worker failed", e.getCause());
+            }
+        }
+        return updates;
+    }
+
+    private List<MapSqlParameterSource> reEncryptSlice(List<Row> rows, Queue<Long> failedIds) {
+        List<MapSqlParameterSource> updates = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            try {
+                if (!encryptionUtil.needsReEncryption(row.card) && !encryptionUtil.needsReEncryption(row.bank)) {
+                    continue;
+                }
+                updates.add(new MapSqlParameterSource()
+                        .addValue("id", row.id)
+                        .addValue("oldCard", row.card)
+                        .addValue("oldBank", row.bank)
+                        .addValue("newCard", reEncrypt(row.card))
+                        .addValue("newBank", reEncrypt(row.bank)));
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+                failedIds.add(row.id);
+                log.warn("Could not re-encrypt payment method {}: {}", row.id, e.getMessage());
+            }
+        }
+        return updates;
+    }
+
+    private String reEncrypt(String value) {
+        if (value == null || !encryptionUtil.needsReEncryption(value)) {
+            return value;
+        }
+        return encryptionUtil.encrypt(encryptionUtil.decrypt(value));
+    }
+
+    // Sleeps until this run's average rate is back under the cap
+    private void throttle(long rows, long startedAt) throws InterruptedException {
+        if (maxRowsPerSecond <= 0) {
+            return;
+        }
+        long dueNanos = rows * TimeUnit.SECONDS.toNanos(1) / maxRowsPerSecond;
+        long aheadNanos = dueNanos - (System.nanoTime() - startedAt);
+        if (aheadNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+        }
+    }
+
+    public long getScanned() {
+        return scanned.get();
+    }
+
+    public long getRotated() {
+        return rotated.get();
+    }
+
+    public long getConflicts() {
+        return conflicts.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+}
@@ -1,25 +1,61 @@
 package com.revpay.service;
 
+import com.revpay.entity.Money;
+import com.revpay.entity.Transaction;
 import com.revpay.entity.User;
-import com.revpay.repository.UserRepository;
+import com.revpay.entity.enums.TransactionStatus;
+import com.revpay.entity.enums.TransactionType;
+import com.revpay.repository.TransactionRepository;
+import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
 @Service
 public class PaymentService {
 
-    private final UserRepository userRepository;
+    private final TransactionRepository transactionRepository;
+    private final WalletLockService walletLockService;
+    private final LedgerService ledgerService;
+    private final IdempotencyService idempotencyService;
 
-    public PaymentService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public PaymentService(TransactionRepository transactionRepository,
+                          WalletLockService walletLockService,
+                          LedgerService ledgerService,
+                          IdempotencyService idempotencyService) {
+        this.transactionRepository = transactionRepository;
+        this.walletLockService = walletLockService;
+        this.ledgerService = ledgerService;
+        this.idempotencyService = idempotencyService;
     }
 
-    public void addMoney(User user, double amount) {
+    @Transactional
+    public Transaction addMoney(User user, Money amount) {
 
-        if (amount <= 0) {
+        if (!amount.isPositive()) {
             throw new RuntimeException("Invalid amount");
         }
 
-        user.setWalletBalance(user.getWalletBalance() + amount);
-        userRepository.save(user);
+        User locked = walletLockService.lock(user.getId());
+
+        Transaction tx = new Transaction();
+        tx.setReceiver(locked);
+        tx.setAmount(amount);
+        tx.setTransactionType(TransactionType.ADD_FUNDS);
+        tx.setStatus(TransactionStatus.COMPLETED);
+
+        Transaction saved = transactionRepository.save(tx);
+        ledgerService.deposit(locked, amount, saved);
+        user.setWalletBalance(locked.getWalletBalance());
+        return saved;
+    }
+
+    // Retry-safe variant: a repeated key returns the original transaction
+    public Transaction addMoney(User user, Money amount, String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, user, IdempotencyService.ADD_MONEY,
+                IdempotencyService.fingerprint(amount.getMinorUnits(), amount.getCurrency()),
+                () -> addMoney(user, amount));
+    }
+
+    public Money getBalance(User user) {
+        return ledgerService.getBalance(user);
     }
 }
@@ -0,0 +1,110 @@
+package com.revpay.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory, time-boxed tokens proving a user recently entered the right PIN.
+ *
+ * One token per user; issuing a new one replaces the old. A token lasts
+ * {@code revpay.session.timeout.minutes} from issue and is checked with one
+ * map lookup. The store holds at most {@code revpay.session.pin.max-sessions}
+ * tokens in an {@link ExpiringMap}; a background sweep drops expired ones, and
+ * at capacity the token closest to expiry is evicted.
+ *
+ * @since 1.1
+ */
+@Component
+public class PinSessionStore {
+
+    private static final int TOKEN_BYTES = 16;
+
+    private final SecureRandom random = new SecureRandom();
+    private final ExpiringMap<Long, String> sessions;
+
+    private final AtomicLong issued = new AtomicLong();
+
+    public PinSessionStore(@Value("${revpay.session.timeout.minutes}") long timeoutMinutes,
+                           @Value("${revpay.session.pin.max-sessions:10000}") int maxSessions,
+                           @Value("${revpay.session.pin.sweep-seconds:60}") long sweepSeconds) {
+        this.sessions = new ExpiringMap<>("pin-session", timeoutMinutes, TimeUnit.MINUTES, maxSessions, sweepSeconds);
+    }
+
+    @PostConstruct
+    public void start() {
+        sessions.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        sessions.stop();
+    }
+
+    /**
+     * Issues a fresh token for a user, replacing any previous one.
+     *
+     * @param userId the user who just passed a PIN check
+     * @return the token
+     * @since 1.1
+     */
+    public String issue(Long userId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(userId, token);
+        issued.incrementAndGet();
+        return token;
+    }
+
+    /**
+     * Whether the token is the user's current, unexpired token.
+     *
+     * @since 1.1
+     */
+    public boolean isValid(Long userId, String token) {
+        if (userId == null || token == null) {
+            return false;
+        }
+        String current = sessions.get(userId);
+        if (current == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(current.getBytes(StandardCharsets.US_ASCII),
+                token.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            sessions.remove(userId);
+        }
+    }
+
+    void sweep() {
+        sessions.sweep();
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public long getIssued() {
+        return issued.get();
+    }
+
+    public long getExpired() {
+        return sessions.getExpired();
+    }
+
+    public long getEvicted() {
+        return sessions.getEvicted();
+    }
+}
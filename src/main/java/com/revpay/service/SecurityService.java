@@ -3,113 +3,113 @@ package com.revpay.service;
 
 import com.revpay.entity.SecurityQuestion;
 import com.revpay.entity.User;
-import com.revpay.exception.InvalidCredentialsException;
-import com.revpay.exception.UserNotFoundException;
 import com.revpay.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCrypt;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.revpay.security.CredentialHasher;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class SecurityService {
 
-    private final UserRepository userRepository;
+    // Source for logins typed at the local console
+    public static final String CONSOLE_SOURCE = "console";
 
-    public SecurityService(UserRepository userRepository) {
+    private final UserRepository userRepository;
+    private final UserLookupCache userLookupCache;
+    private final CredentialHasher credentialHasher;
+    private final PinSessionStore pinSessionStore;
+    private final OtpStore otpStore;
+    private final AuthenticationService authenticationService;
+
+    public SecurityService(UserRepository userRepository,
+                           UserLookupCache userLookupCache,
+                           CredentialHasher credentialHasher,
+                           PinSessionStore pinSessionStore,
+                           OtpStore otpStore,
+                           AuthenticationService authenticationService) {
         this.userRepository = userRepository;
+        this.userLookupCache = userLookupCache;
+        this.credentialHasher = credentialHasher;
+        this.pinSessionStore = pinSessionStore;
+        this.otpStore = otpStore;
+        this.authenticationService = authenticationService;
     }
-    @Value("${revpay.login.max-attempts}")
-    private int maxFailedAttempts;
-
-    @Value("${revpay.session.timeout.minutes}")
-    private long lockTimeDuration;
-
-
-    @Autowired
-    private PasswordEncoder passwordEncoder;
-
 
     public User login(String identifier, String rawPassword) {
-        User user = userRepository
-                .findByEmailOrPhone(identifier, identifier)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-
-        if (user.isAccountLocked()) {
-            throw new InvalidCredentialsException("Account is locked due to multiple failed login attempts.");
-        }
-
-        if (!user.getPasswordHash().equals(rawPassword)) {
-            int failedAttempts = user.getFailedLoginAttempts() + 1;
-            user.setFailedLoginAttempts(failedAttempts);
+        return login(identifier, rawPassword, CONSOLE_SOURCE);
+    }
 
-            if (failedAttempts >= maxFailedAttempts) {
-                user.setAccountLocked(true);
-            }
+    /**
+     * Authenticates a user; see {@link AuthenticationService#authenticate}.
+     *
+     * @param source where the attempt comes from, e.g. a client address
+     * @since 1.1
+     */
+    public User login(String identifier, String rawPassword, String source) {
+        return authenticationService.authenticate(identifier, rawPassword, source);
+    }
 
-            userRepository.save(user);
+    // BCrypt runs on the bounded hashing pool, never on the caller's thread
+    public String hashPin(String pin) {
+        return credentialHasher.hash(pin);
+    }
 
-            throw new InvalidCredentialsException(failedAttempts >= maxFailedAttempts
-                    ? "Account locked due to " + maxFailedAttempts + " failed login attempts."
-                    : "Invalid password. Attempts left: " + (maxFailedAttempts - failedAttempts));
-        }
+    public boolean verifyPin(User user, String pin) {
+        return credentialHasher.matches(pin, user.getTransactionPinHash());
+    }
 
-        if (user.getFailedLoginAttempts() > 0) {
-            user.setFailedLoginAttempts(0);
-            userRepository.save(user);
+    /* ---------------- PIN SESSIONS ----------------
+       One BCrypt check buys a token valid for
+       revpay.session.timeout.minutes; later sensitive
+       actions check the token instead of the PIN. */
+
+    /**
+     * Verifies the PIN and, if correct, opens a PIN session.
+     *
+     * @return the session token, or null if the PIN is wrong
+     * @since 1.1
+     */
+    public String openPinSession(User user, String pin) {
+        if (!verifyPin(user, pin)) {
+            return null;
         }
-
-        return user;
+        return pinSessionStore.issue(user.getId());
     }
 
-    public String hashPin(String pin) {
-        // Use secure hash, e.g. BCrypt or SHA-256 with salt, example:
-        return BCrypt.hashpw(pin, BCrypt.gensalt());
+    public boolean hasValidPinSession(User user, String token) {
+        return pinSessionStore.isValid(user.getId(), token);
     }
 
-    public boolean verifyPin(User user, String pin) {
-        // Compare entered PIN hash with stored user.getTransactionPinHash()
-        return BCrypt.checkpw(pin, user.getTransactionPinHash());
+    public void closePinSession(User user) {
+        pinSessionStore.invalidate(user.getId());
     }
     private final SecureRandom random = new SecureRandom();
-    private final Map<Long, String> user2FACodes = new ConcurrentHashMap<>(); // userId to code
 
     // Generate and store a 6-digit code for user
     public String generate2FACode(User user) {
         int code = 100000 + random.nextInt(900000); // 6-digit code
         String codeStr = String.valueOf(code);
-        user2FACodes.put(user.getId(), codeStr);
+        otpStore.put(user.getId(), codeStr);
         return codeStr;
     }
 
-    // Verify entered code
+    // Verify entered code; expiry, attempt limits and removal are handled by the store
     public boolean verify2FACode(User user, String inputCode) {
-        String correctCode = user2FACodes.get(user.getId());
-        if (correctCode != null && correctCode.equals(inputCode)) {
-            user2FACodes.remove(user.getId()); // remove after successful verification
-            return true;
-        }
-        return false;
+        return otpStore.verify(user.getId(), inputCode);
     }
 
     public User findUserByEmailOrPhone(String identifier) {
-        return userRepository.findByEmailOrPhone(identifier, identifier).orElse(null);
+        return userLookupCache.resolve(identifier).orElse(null);
     }
 
     public boolean verifySecurityAnswer(User user, SecurityQuestion question, String answer) {
-        // Assuming stored answers are hashed for security
-        // You can use BCrypt or simple equals if plain text (not recommended)
-        // Example if stored hashed:
-        return BCrypt.checkpw(answer.trim().toLowerCase(), question.getAnswerHash());
+        // Stored answers are BCrypt hashes of the trimmed, lower-cased answer
+        return credentialHasher.matches(answer.trim().toLowerCase(), question.getAnswerHash());
     }
 
     public void resetPassword(User user, String newRawPassword) {
-        String hashed = passwordEncoder.encode(newRawPassword);
+        String hashed = authenticationService.hashPassword(newRawPassword);
         user.setPasswordHash(hashed);
         userRepository.save(user);
     }
@@ -1,69 +1,128 @@
 package com.revpay.service;
 
+import com.revpay.entity.Money;
 import com.revpay.entity.Transaction;
 import com.revpay.entity.User;
 import com.revpay.entity.enums.TransactionStatus;
 import com.revpay.entity.enums.TransactionType;
+import com.revpay.exception.InsufficientBalanceException;
+import com.revpay.exception.UserNotFoundException;
 import com.revpay.repository.TransactionRepository;
-import com.revpay.repository.UserRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.PrintWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class TransactionService {
 
+    private static final Logger log = LoggerFactory.getLogger(TransactionService.class);
+
+    private static final String CSV_HEADER = "ID,TYPE,STATUS,AMOUNT,SENDER,RECEIVER,DATE,NOTE\n";
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private static final String EXPORT_SELECT =
+            "select t.id, t.transaction_type, t.status, t.amount, s.email, r.email, t.created_at, t.note " +
+                    "from transactions t " +
+                    "left join users s on s.id = t.sender_id " +
+                    "left join users r on r.id = t.receiver_id";
+    private static final String EXPORT_ORDER = " order by t.created_at desc, t.id desc";
+
+    private static final Comparator<Transaction> HISTORY_ORDER =
+            Comparator.comparing(Transaction::getCreatedAt)
+                    .thenComparing(Transaction::getId)
+                    .reversed();
+
     private final TransactionRepository transactionRepository;
-    private final UserRepository userRepository;
+    private final WalletLockService walletLockService;
+    private final LedgerService ledgerService;
+    private final IdempotencyService idempotencyService;
+    private final UserLookupCache userLookupCache;
+    private final ExportConnectionPool exportConnectionPool;
 
     public TransactionService(TransactionRepository transactionRepository,
-                              UserRepository userRepository) {
+                              WalletLockService walletLockService,
+                              LedgerService ledgerService,
+                              IdempotencyService idempotencyService,
+                              UserLookupCache userLookupCache,
+                              ExportConnectionPool exportConnectionPool) {
         this.transactionRepository = transactionRepository;
-        this.userRepository = userRepository;
+        this.walletLockService = walletLockService;
+        this.ledgerService = ledgerService;
+        this.idempotencyService = idempotencyService;
+        this.userLookupCache = userLookupCache;
+        this.exportConnectionPool = exportConnectionPool;
     }
 
     /* ---------------------------------------------------
        SEND MONEY
+       Debit, credit and transaction row commit together; both
+       wallet rows are locked (lowest id first) and the
+       balance is re-read under the lock, so concurrent
+       transfers out of one wallet can never overdraw it.
     --------------------------------------------------- */
-    public Transaction sendMoney(User sender, String receiverIdentifier, double amount) {
+    @Transactional
+    public Transaction sendMoney(User sender, String receiverIdentifier, Money amount) {
 
-        if (amount <= 0) {
+        if (!amount.isPositive()) {
             throw new RuntimeException("Invalid amount");
         }
 
-        if (sender.getWalletBalance() < amount) {
-            throw new RuntimeException("Insufficient balance");
-        }
-
         User receiver = findUserByEmailOrPhone(receiverIdentifier)
                 .orElseThrow(() ->
-                        new RuntimeException("Receiver not found"));
+                        new UserNotFoundException("Receiver not found"));
 
         if (sender.getId().equals(receiver.getId())) {
             throw new RuntimeException("Cannot send money to yourself");
         }
 
-        // Wallet update
-        sender.setWalletBalance(sender.getWalletBalance() - amount);
-        receiver.setWalletBalance(receiver.getWalletBalance() + amount);
-
-        userRepository.save(sender);
-        userRepository.save(receiver);
+        Map<Long, User> locked = walletLockService.lockInOrder(sender.getId(), receiver.getId());
+        User from = locked.get(sender.getId());
+        User to = locked.get(receiver.getId());
 
         Transaction tx = new Transaction();
-        tx.setSender(sender);
-        tx.setReceiver(receiver);
+        tx.setSender(from);
+        tx.setReceiver(to);
         tx.setAmount(amount);
         tx.setTransactionType(TransactionType.SEND);
         tx.setStatus(TransactionStatus.COMPLETED);
 
-        return transactionRepository.save(tx);
+        Transaction saved = transfer(from, to, amount, tx);
+        sender.setWalletBalance(from.getWalletBalance());
+        return saved;
+    }
+
+    // Retry-safe variant: a repeated key returns the original transaction
+    public Transaction sendMoney(User sender, String receiverIdentifier, Money amount,
+                                 String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, sender, IdempotencyService.SEND_MONEY,
+                IdempotencyService.fingerprint(receiverIdentifier, amount.getMinorUnits(), amount.getCurrency()),
+                () -> sendMoney(sender, receiverIdentifier, amount));
     }
 
     /* ---------------------------------------------------
@@ -71,9 +130,9 @@ public class TransactionService {
     --------------------------------------------------- */
     public Transaction requestMoney(User requester,
                                     String payerIdentifier,
-                                    double amount) {
+                                    Money amount) {
 
-        if (amount <= 0) {
+        if (!amount.isPositive()) {
             throw new RuntimeException("Invalid amount");
         }
 
@@ -97,7 +156,11 @@ public class TransactionService {
 
     /* ---------------------------------------------------
        ACCEPT REQUEST
+       The PENDING -> COMPLETED flip is a guarded update made
+       after both wallets are locked, so of two concurrent
+       accepts only one can pay.
     --------------------------------------------------- */
+    @Transactional
     public Transaction acceptRequest(Long requestId, User payer) {
 
         Transaction requestTx = transactionRepository.findById(requestId)
@@ -112,29 +175,35 @@ public class TransactionService {
             throw new RuntimeException("Request already processed");
         }
 
-        double amount = requestTx.getAmount();
-
-        if (payer.getWalletBalance() < amount) {
-            throw new RuntimeException("Insufficient balance");
-        }
-
-        User requester = requestTx.getSender();
-
-        payer.setWalletBalance(payer.getWalletBalance() - amount);
-        requester.setWalletBalance(requester.getWalletBalance() + amount);
+        Money amount = requestTx.getAmount();
+        Long requesterId = requestTx.getSender().getId();
 
-        userRepository.save(payer);
-        userRepository.save(requester);
+        Map<Long, User> locked = walletLockService.lockInOrder(payer.getId(), requesterId);
+        User lockedPayer = locked.get(payer.getId());
+        User lockedRequester = locked.get(requesterId);
 
+        if (transactionRepository.resolvePending(requestId, TransactionStatus.COMPLETED, TransactionType.SEND) == 0) {
+            throw new RuntimeException("Request already processed");
+        }
         requestTx.setStatus(TransactionStatus.COMPLETED);
         requestTx.setTransactionType(TransactionType.SEND);
 
-        return transactionRepository.save(requestTx);
+        Transaction saved = transfer(lockedPayer, lockedRequester, amount, requestTx);
+        payer.setWalletBalance(lockedPayer.getWalletBalance());
+        return saved;
+    }
+
+    // Retry-safe variant: a repeated key returns the original transaction
+    public Transaction acceptRequest(Long requestId, User payer, String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, payer, IdempotencyService.ACCEPT_REQUEST,
+                IdempotencyService.fingerprint(requestId),
+                () -> acceptRequest(requestId, payer));
     }
 
     /* ---------------------------------------------------
        DECLINE REQUEST
     --------------------------------------------------- */
+    @Transactional
     public Transaction declineRequest(Long requestId, User payer) {
 
         Transaction requestTx = transactionRepository.findById(requestId)
@@ -145,12 +214,14 @@ public class TransactionService {
             throw new RuntimeException("Unauthorized action");
         }
 
-        if (requestTx.getStatus() != TransactionStatus.PENDING) {
+        if (requestTx.getStatus() != TransactionStatus.PENDING
+                || transactionRepository.resolvePending(requestId, TransactionStatus.DECLINED,
+                requestTx.getTransactionType()) == 0) {
             throw new RuntimeException("Request already processed");
         }
 
         requestTx.setStatus(TransactionStatus.DECLINED);
-        return transactionRepository.save(requestTx);
+        return requestTx;
     }
 
     /* ---------------------------------------------------
@@ -168,30 +239,43 @@ public class TransactionService {
     /* ---------------------------------------------------
        WITHDRAW MONEY
     --------------------------------------------------- */
-    public Transaction withdrawMoney(User user, double amount) {
+    @Transactional
+    public Transaction withdrawMoney(User user, Money amount) {
 
-        if (amount <= 0) {
+        if (!amount.isPositive()) {
             throw new RuntimeException("Invalid withdrawal amount");
         }
 
-        if (user.getWalletBalance() < amount) {
-            throw new RuntimeException("Insufficient balance");
-        }
+        User locked = walletLockService.lock(user.getId());
 
-        user.setWalletBalance(user.getWalletBalance() - amount);
-        userRepository.save(user);
+        if (ledgerService.getLockedBalance(locked).isLessThan(amount)) {
+            throw new InsufficientBalanceException("Insufficient balance");
+        }
 
         Transaction tx = new Transaction();
-        tx.setSender(user);
+        tx.setSender(locked);
         tx.setAmount(amount);
         tx.setTransactionType(TransactionType.WITHDRAW);
         tx.setStatus(TransactionStatus.COMPLETED);
 
-        return transactionRepository.save(tx);
+        Transaction saved = transactionRepository.save(tx);
+        ledgerService.withdraw(locked, amount, saved);
+        user.setWalletBalance(locked.getWalletBalance());
+        return saved;
+    }
+
+    // Retry-safe variant: a repeated key returns the original transaction
+    public Transaction withdrawMoney(User user, Money amount, String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, user, IdempotencyService.WITHDRAW_MONEY,
+                IdempotencyService.fingerprint(amount.getMinorUnits(), amount.getCurrency()),
+                () -> withdrawMoney(user, amount));
     }
 
     /* ---------------------------------------------------
        TRANSACTION HISTORY
+       Filters and ordering run in SQL. The sent and
+       received sides are read separately so each uses its
+       (party_id, created_at) index, then merged.
     --------------------------------------------------- */
     public List<Transaction> getTransactionHistory(
             User user,
@@ -201,22 +285,75 @@ public class TransactionService {
             TransactionStatus status,
             String search
     ) {
+        return loadHistory(user, fromDate, toDate, type, status, search,
+                null, Pageable.unpaged(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns one page of history, newest first.
+     *
+     * @param lastSeen last transaction of the previous page, or null for the first page
+     * @param pageSize maximum number of rows to return
+     */
+    public List<Transaction> getTransactionHistoryPage(
+            User user,
+            LocalDate fromDate,
+            LocalDate toDate,
+            TransactionType type,
+            TransactionStatus status,
+            String search,
+            Transaction lastSeen,
+            int pageSize
+    ) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return loadHistory(user, fromDate, toDate, type, status, search,
+                lastSeen, PageRequest.of(0, pageSize), pageSize);
+    }
 
-        return transactionRepository.findBySenderOrReceiver(user, user)
-                .stream()
-                .filter(tx -> fromDate == null ||
-                        !tx.getCreatedAt().toLocalDate().isBefore(fromDate))
-                .filter(tx -> toDate == null ||
-                        !tx.getCreatedAt().toLocalDate().isAfter(toDate))
-                .filter(tx -> type == null ||
-                        tx.getTransactionType() == type)
-                .filter(tx -> status == null ||
-                        tx.getStatus() == status)
-                .filter(tx -> search == null ||
-                        (tx.getNote() != null &&
-                                tx.getNote().toLowerCase().contains(search.toLowerCase())))
-                .sorted(Comparator.comparing(Transaction::getCreatedAt).reversed())
-                .collect(Collectors.toList());
+    private List<Transaction> loadHistory(
+            User user,
+            LocalDate fromDate,
+            LocalDate toDate,
+            TransactionType type,
+            TransactionStatus status,
+            String search,
+            Transaction lastSeen,
+            Pageable pageable,
+            int limit
+    ) {
+        LocalDateTime from = fromDate != null ? fromDate.atStartOfDay() : null;
+        LocalDateTime to = toDate != null ? toDate.plusDays(1).atStartOfDay() : null;
+        String term = (search == null || search.isBlank()) ? null : search.trim();
+        LocalDateTime beforeCreatedAt = lastSeen != null ? lastSeen.getCreatedAt() : null;
+        Long beforeId = lastSeen != null ? lastSeen.getId() : null;
+
+        List<Transaction> sent = transactionRepository.findSentHistoryPage(
+                user, from, to, type, status, term, beforeCreatedAt, beforeId, pageable);
+        List<Transaction> received = transactionRepository.findReceivedHistoryPage(
+                user, from, to, type, status, term, beforeCreatedAt, beforeId, pageable);
+
+        // Both inputs are already sorted; merge and keep the newest `limit` rows
+        List<Transaction> merged = new ArrayList<>(Math.min(limit, sent.size() + received.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < sent.size() || j < received.size())) {
+            Transaction next;
+            if (j >= received.size()) {
+                next = sent.get(i++);
+            } else if (i >= sent.size()) {
+                next = received.get(j++);
+            } else if (HISTORY_ORDER.compare(sent.get(i), received.get(j)) <= 0) {
+                next = sent.get(i++);
+            } else {
+                next = received.get(j++);
+            }
+            if (merged.isEmpty() || !merged.get(merged.size() - 1).getId().equals(next.getId())) {
+                merged.add(next);
+            }
+        }
+        return merged;
     }
 
     /* ---------------------------------------------------
@@ -226,21 +363,13 @@ public class TransactionService {
             List<Transaction> transactions,
             String filePath) {
 
-        try (PrintWriter writer = new PrintWriter(new File(filePath))) {
+        try (Writer writer = openExportWriter(filePath, false)) {
 
-            writer.println("ID,TYPE,STATUS,AMOUNT,SENDER,RECEIVER,DATE,NOTE");
+            StringBuilder row = new StringBuilder(256);
+            writer.write(CSV_HEADER);
 
             for (Transaction tx : transactions) {
-                writer.println(
-                        tx.getId() + "," +
-                                tx.getTransactionType() + "," +
-                                tx.getStatus() + "," +
-                                tx.getAmount() + "," +
-                                (tx.getSender() != null ? tx.getSender().getEmail() : "N/A") + "," +
-                                (tx.getReceiver() != null ? tx.getReceiver().getEmail() : "N/A") + "," +
-                                tx.getCreatedAt() + "," +
-                                (tx.getNote() != null ? tx.getNote() : "")
-                );
+                writeCsvRow(writer, row, tx);
             }
 
         } catch (Exception e) {
@@ -249,14 +378,228 @@ public class TransactionService {
     }
 
     /* ---------------------------------------------------
-       COMMON USER FINDER
+       STREAMING EXPORT
+       Rows come from two forward-only cursors (sent and
+       received side) merged newest first, and go straight
+       to a buffered (optionally gzipped) file, so memory
+       stays flat regardless of ledger size. The cursors
+       run on the export pool, the only connections that
+       use server-side cursor fetch.
     --------------------------------------------------- */
-    private Optional<User> findUserByEmailOrPhone(String identifier) {
+    public long exportTransactionHistory(
+            User user,
+            LocalDate fromDate,
+            LocalDate toDate,
+            TransactionType type,
+            TransactionStatus status,
+            String search,
+            String filePath,
+            boolean gzip) {
+
+        List<Object> params = new ArrayList<>();
+        params.add(user.getId());
+        String filters = exportFilters(fromDate, toDate, type, status, search, params);
+
+        long started = System.nanoTime();
+        long rows = 0;
+
+        try (Connection connection = exportConnectionPool.getConnection();
+             PreparedStatement sentQuery = openExportCursor(connection, "t.sender_id", filters, params);
+             PreparedStatement receivedQuery = openExportCursor(connection, "t.receiver_id", filters, params);
+             ResultSet sent = sentQuery.executeQuery();
+             ResultSet received = receivedQuery.executeQuery();
+             Writer writer = openExportWriter(filePath, gzip)) {
+
+            ExportRow nextSent = ExportRow.next(sent);
+            ExportRow nextReceived = ExportRow.next(received);
+            Long previousId = null;
+
+            StringBuilder row = new StringBuilder(256);
+            writer.write(CSV_HEADER);
+
+            while (nextSent != null || nextReceived != null) {
+                ExportRow tx;
+                if (nextReceived == null ||
+                        (nextSent != null && nextSent.isNewerThanOrSame(nextReceived))) {
+                    tx = nextSent;
+                    nextSent = ExportRow.next(sent);
+                } else {
+                    tx = nextReceived;
+                    nextReceived = ExportRow.next(received);
+                }
+
+                if (previousId != null && tx.id == previousId) {
+                    continue;
+                }
+                previousId = tx.id;
+
+                writeCsvRow(writer, row, tx.id, tx.type, tx.status, tx.amount,
+                        tx.senderEmail, tx.receiverEmail, tx.createdAt, tx.note);
+                rows++;
+            }
+
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to export transaction history", e);
+        }
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Exported {} transactions to {} in {} ms ({} rows/s)",
+                rows, filePath, elapsedMs, rows * 1000 / elapsedMs);
+        return rows;
+    }
+
+    // Only the filters that are set go into the SQL, so each side stays a range scan on its index
+    private static String exportFilters(LocalDate fromDate, LocalDate toDate, TransactionType type,
+                                        TransactionStatus status, String search, List<Object> params) {
+        StringBuilder filters = new StringBuilder();
+        if (fromDate != null) {
+            filters.append(" and t.created_at >= ?");
+            params.add(Timestamp.valueOf(fromDate.atStartOfDay()));
+        }
+        if (toDate != null) {
+            filters.append(" and t.created_at < ?");
+            params.add(Timestamp.valueOf(toDate.plusDays(1).atStartOfDay()));
+        }
+        if (type != null) {
+            filters.append(" and t.transaction_type = ?");
+            params.add(type.name());
+        }
+        if (status != null) {
+            filters.append(" and t.status = ?");
+            params.add(status.name());
+        }
+        if (search != null && !search.isBlank()) {
+            filters.append(" and lower(t.note) like ?");
+            params.add("%" + search.trim().toLowerCase() + "%");
+        }
+        return filters.toString();
+    }
+
+    private static PreparedStatement openExportCursor(Connection connection, String partyColumn,
+                                                      String filters, List<Object> params) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(
+                EXPORT_SELECT + " where " + partyColumn + " = ?" + filters + EXPORT_ORDER,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(EXPORT_FETCH_SIZE);
+        for (int i = 0; i < params.size(); i++) {
+            statement.setObject(i + 1, params.get(i));
+        }
+        return statement;
+    }
+
+    private Writer openExportWriter(String filePath, boolean gzip) throws IOException {
+        OutputStream out = Files.newOutputStream(Path.of(filePath));
+        if (gzip) {
+            out = new GZIPOutputStream(out, EXPORT_BUFFER_SIZE);
+        }
+        return new BufferedWriter(
+                new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+    }
+
+    private void writeCsvRow(Writer writer, StringBuilder row, Transaction tx) throws IOException {
+        writeCsvRow(writer, row, tx.getId(), tx.getTransactionType(), tx.getStatus(), tx.getAmount(),
+                tx.getSender() != null ? tx.getSender().getEmail() : null,
+                tx.getReceiver() != null ? tx.getReceiver().getEmail() : null,
+                tx.getCreatedAt(), tx.getNote());
+    }
+
+    private void writeCsvRow(Writer writer, StringBuilder row, long id, Object type, Object status,
+                             Money amount, String senderEmail, String receiverEmail,
+                             LocalDateTime createdAt, String note) throws IOException {
+        row.setLength(0);
+        row.append(id).append(',')
+                .append(type).append(',')
+                .append(status).append(',')
+                .append(amount).append(',');
+        appendCsv(row, senderEmail != null ? senderEmail : "N/A");
+        row.append(',');
+        appendCsv(row, receiverEmail != null ? receiverEmail : "N/A");
+        row.append(',')
+                .append(createdAt).append(',');
+        appendCsv(row, note);
+        row.append('\n');
+        writer.append(row);
+    }
 
-        Optional<User> userByEmail = userRepository.findByEmail(identifier);
-        if (userByEmail.isPresent()) {
-            return userByEmail;
+    // One exported row, read straight from the cursor without building entities
+    private static final class ExportRow {
+
+        private final long id;
+        private final String type;
+        private final String status;
+        private final Money amount;
+        private final String senderEmail;
+        private final String receiverEmail;
+        private final LocalDateTime createdAt;
+        private final String note;
+
+        private ExportRow(ResultSet rs) throws SQLException {
+            id = rs.getLong(1);
+            type = rs.getString(2);
+            status = rs.getString(3);
+            amount = Money.ofMinor(rs.getLong(4));
+            senderEmail = rs.getString(5);
+            receiverEmail = rs.getString(6);
+            Timestamp created = rs.getTimestamp(7);
+            createdAt = created != null ? created.toLocalDateTime() : null;
+            note = rs.getString(8);
         }
-        return userRepository.findByPhone(identifier);
+
+        static ExportRow next(ResultSet rs) throws SQLException {
+            return rs.next() ? new ExportRow(rs) : null;
+        }
+
+        // Same order as HISTORY_ORDER: created_at, then id, both descending
+        boolean isNewerThanOrSame(ExportRow other) {
+            int byTime = other.createdAt.compareTo(createdAt);
+            return byTime != 0 ? byTime < 0 : id >= other.id;
+        }
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks
+    private static void appendCsv(StringBuilder row, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            row.append(value);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+
+    /* ---------------------------------------------------
+       WALLET TRANSFER (caller holds both row locks)
+    --------------------------------------------------- */
+    private Transaction transfer(User from, User to, Money amount, Transaction tx) {
+
+        if (ledgerService.getLockedBalance(from).isLessThan(amount)) {
+            throw new InsufficientBalanceException("Insufficient balance");
+        }
+
+        Transaction saved = transactionRepository.save(tx);
+        ledgerService.debit(from, amount, saved);
+        ledgerService.credit(to, amount, saved);
+        return saved;
+    }
+
+    /* ---------------------------------------------------
+       COMMON USER FINDER
+    --------------------------------------------------- */
+    private Optional<User> findUserByEmailOrPhone(String identifier) {
+        return userLookupCache.resolve(identifier);
     }
 }
@@ -0,0 +1,102 @@
+package com.revpay.service;
+
+import com.revpay.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-user unread notification counts, kept in memory.
+ *
+ * A user's first read runs one indexed COUNT; after that the dispatcher and
+ * the read/unread toggles adjust the counter, so the menu badge costs a map
+ * lookup. Users that were never read are not tracked; their next read
+ * counts from the table. An adjustment that arrives while the COUNT is
+ * running may or may not be in its snapshot, so that COUNT is discarded and
+ * the next read counts again. At most
+ * {@code revpay.notifications.unread-counter.max-users} users are tracked,
+ * evicting the least recently used.
+ *
+ * @since 1.1
+ */
+@Component
+public class UnreadNotificationCounter {
+
+    private final NotificationRepository notificationRepository;
+    private final int maxUsers;
+
+    // Access-ordered so the eldest entry is the least recently used; guarded by `this`
+    private final LinkedHashMap<Long, Count> counts = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Count> eldest) {
+            return size() > maxUsers;
+        }
+    };
+
+    private static final class Count {
+        long value;
+        boolean loaded;
+        // Bumped by adjustments made while the COUNT is in flight
+        int version;
+    }
+
+    public UnreadNotificationCounter(NotificationRepository notificationRepository,
+                                     @Value("${revpay.notifications.unread-counter.max-users:10000}") int maxUsers) {
+        this.notificationRepository = notificationRepository;
+        this.maxUsers = maxUsers;
+    }
+
+    public long get(Long userId) {
+        Count count;
+        int version;
+        synchronized (this) {
+            count = counts.get(userId);
+            if (count == null) {
+                count = new Count();
+                counts.put(userId, count);
+            } else if (count.loaded) {
+                return count.value;
+            }
+            version = count.version;
+        }
+
+        // Outside the lock; the placeholder makes concurrent adjustments visible
+        long unread = notificationRepository.countUnread(userId);
+        synchronized (this) {
+            if (counts.get(userId) == count && !count.loaded && count.version == version) {
+                count.value = unread;
+                count.loaded = true;
+            }
+        }
+        return unread;
+    }
+
+    /**
+     * Adjusts a tracked user's count; untracked users are left for the COUNT on first read.
+     *
+     * @param delta positive for new or re-opened notifications, negative for ones read
+     * @since 1.1
+     */
+    public synchronized void add(Long userId, long delta) {
+        Count count = counts.get(userId);
+        if (count == null) {
+            return;
+        }
+        if (count.loaded) {
+            count.value = Math.max(0, count.value + delta);
+        } else {
+            count.version++;
+        }
+    }
+
+    // Forces the next read to recount, e.g. after a bulk change made outside this class
+    public synchronized void invalidate(Long userId) {
+        counts.remove(userId);
+    }
+
+    public synchronized int size() {
+        return counts.size();
+    }
+}
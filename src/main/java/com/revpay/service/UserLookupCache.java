@@ -0,0 +1,159 @@
+package com.revpay.service;
+
+import com.revpay.entity.User;
+import com.revpay.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded, TTL-evicting cache of email/phone to user id.
+ *
+ * A hit turns the identifier lookup into a primary-key read. The loaded user
+ * is checked against the identifier, so a stale entry (changed email or phone)
+ * is dropped rather than returned. A miss runs one indexed
+ * {@code email = ? or phone = ?} query.
+ *
+ * @since 1.1
+ */
+@Component
+public class UserLookupCache {
+
+    private final UserRepository userRepository;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    // Access-ordered so the eldest entry is the least recently used; guarded by `this`
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static final class Entry {
+        final Long userId;
+        final long expiresAt;
+
+        Entry(Long userId, long expiresAt) {
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public UserLookupCache(UserRepository userRepository,
+                           @Value("${revpay.cache.user-lookup.max-size:10000}") int maxSize,
+                           @Value("${revpay.cache.user-lookup.ttl-minutes:10}") long ttlMinutes) {
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(ttlMinutes);
+    }
+
+    /**
+     * Resolves a user by email or phone.
+     *
+     * @param identifier email or phone
+     * @return the user, if one exists
+     * @since 1.1
+     */
+    public Optional<User> resolve(String identifier) {
+        if (identifier == null || identifier.isBlank()) {
+            return Optional.empty();
+        }
+        String key = identifier.trim();
+
+        Long cachedId = lookup(key);
+        if (cachedId != null) {
+            Optional<User> user = userRepository.findById(cachedId)
+                    .filter(u -> key.equals(u.getEmail()) || key.equals(u.getPhone()));
+            if (user.isPresent()) {
+                hits.incrementAndGet();
+                return user;
+            }
+            invalidate(key);
+        }
+
+        misses.incrementAndGet();
+        Optional<User> user = userRepository.findByEmailOrPhone(key, key);
+        user.ifPresent(u -> put(key, u.getId()));
+        return user;
+    }
+
+    /**
+     * Drops a single identifier.
+     *
+     * @param identifier email or phone
+     * @since 1.1
+     */
+    public synchronized void invalidate(String identifier) {
+        if (identifier != null) {
+            entries.remove(identifier.trim());
+        }
+    }
+
+    /**
+     * Drops every identifier of a user; call after changing email or phone.
+     *
+     * @param user the user whose identifiers changed
+     * @since 1.1
+     */
+    public synchronized void invalidateUser(User user) {
+        invalidate(user.getEmail());
+        invalidate(user.getPhone());
+        if (user.getId() != null) {
+            entries.values().removeIf(e -> user.getId().equals(e.userId));
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized Long lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt > 0) {
+            entries.remove(key);
+            evictions.incrementAndGet();
+            return null;
+        }
+        return entry.userId;
+    }
+
+    private synchronized void put(String key, Long userId) {
+        entries.put(key, new Entry(userId, System.nanoTime() + ttlNanos));
+
+        // LRU overflow; expired entries at the head go first anyway
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "UserLookupCache{size=" + size() + ", hits=" + hits + ", misses=" + misses +
+                ", evictions=" + evictions + "}";
+    }
+}
@@ -1,7 +1,9 @@
 package com.revpay.service;
 
+import com.revpay.entity.Money;
 import com.revpay.entity.User;
 import com.revpay.repository.UserRepository;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Arrays;
@@ -12,14 +14,22 @@ import java.util.List;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserLookupCache userLookupCache;
+    private final PasswordEncoder passwordEncoder;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, UserLookupCache userLookupCache, PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
+        this.userLookupCache = userLookupCache;
+        this.passwordEncoder = passwordEncoder;
     }
 
+    // Callers pass the raw password in passwordHash; it is hashed here before saving
     public User register(User user) {
-        user.setWalletBalance(0.0);
-        return userRepository.save(user);
+        user.setPasswordHash(passwordEncoder.encode(user.getPasswordHash()));
+        user.setWalletBalance(Money.ZERO);
+        User saved = userRepository.save(user);
+        userLookupCache.invalidateUser(saved);
+        return saved;
     }
 
     public User getUser(Long id) {
@@ -0,0 +1,63 @@
+package com.revpay.service;
+
+import com.revpay.entity.User;
+import com.revpay.exception.UserNotFoundException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Acquires row locks on wallet owners for the duration of the current transaction.
+ *
+ * @since 1.1
+ */
+@Service
+public class WalletLockService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Locks the given users (SELECT ... FOR UPDATE) lowest id first so that two
+     * transfers touching the same pair of wallets can never deadlock, and
+     * re-reads their balances from the database.
+     *
+     * Must be called inside a transaction.
+     *
+     * @param userIds ids of the users to lock
+     * @return locked, freshly loaded users keyed by id
+     * @since 1.1
+     */
+    public Map<Long, User> lockInOrder(Long... userIds) {
+        Map<Long, User> locked = new LinkedHashMap<>();
+        for (Long id : new TreeSet<>(Arrays.asList(userIds))) {
+            locked.put(id, lock(id));
+        }
+        return locked;
+    }
+
+    /**
+     * Locks a single user row and re-reads its state.
+     *
+     * @param userId id of the user to lock
+     * @return the locked user
+     * @since 1.1
+     */
+    public User lock(Long userId) {
+        try {
+            // refresh() also overwrites any stale copy already in the persistence context
+            User user = entityManager.getReference(User.class, userId);
+            entityManager.refresh(user, LockModeType.PESSIMISTIC_WRITE);
+            return user;
+        } catch (EntityNotFoundException e) {
+            throw new UserNotFoundException("User not found with id: " + userId);
+        }
+    }
+}
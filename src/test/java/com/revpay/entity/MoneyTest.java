@@ -0,0 +1,96 @@
+package com.revpay.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+	@Test
+	void parsesDecimalInputIntoMinorUnits() {
+		assertEquals(25050L, Money.parse("250.5").getMinorUnits());
+		assertEquals(100L, Money.parse(" 1 ").getMinorUnits());
+		assertEquals(199L, Money.parse("1.990").getMinorUnits());
+		assertSame(Money.ZERO, Money.parse("0.00"));
+	}
+
+	@Test
+	void rejectsSubMinorPrecision() {
+		assertThrows(NumberFormatException.class, () -> Money.parse("1.005"));
+		assertThrows(NumberFormatException.class, () -> Money.parse("abc"));
+	}
+
+	@Test
+	void arithmeticIsExact() {
+		Money total = Money.ZERO;
+		for (int i = 0; i < 10; i++) {
+			total = total.plus(Money.parse("0.10"));
+		}
+		assertEquals(Money.parse("1.00"), total);
+		assertEquals("0.90", total.minus(Money.parse("0.10")).toString());
+		assertTrue(Money.parse("0.99").isLessThan(total));
+	}
+
+	@Test
+	void overflowIsDetected() {
+		Money max = Money.ofMinor(Long.MAX_VALUE);
+		assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1)));
+	}
+
+	@Test
+	void multiplicationOverflowIsDetected() {
+		assertEquals(Money.parse("59.97"), Money.parse("19.99").times(3));
+		Money half = Money.ofMinor(Long.MAX_VALUE / 2 + 1);
+		assertThrows(ArithmeticException.class, () -> half.times(2));
+		assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).times(Integer.MAX_VALUE));
+	}
+
+	@Test
+	void basisPointsRoundHalfUp() {
+		// 10% of 0.05, 0.15 and 0.25: exactly half a minor unit rounds up, not to even
+		assertEquals(Money.ofMinor(1), Money.ofMinor(5).basisPoints(1_000));
+		assertEquals(Money.ofMinor(2), Money.ofMinor(15).basisPoints(1_000));
+		assertEquals(Money.ofMinor(3), Money.ofMinor(25).basisPoints(1_000));
+		assertEquals(Money.ofMinor(1), Money.ofMinor(14).basisPoints(1_000));
+		assertEquals(Money.parse("18.00"), Money.parse("100.00").basisPoints(1_800));
+	}
+
+	@Test
+	void zeroAndFullTaxRates() {
+		Money net = Money.parse("123.45");
+		assertEquals(Money.ZERO, net.basisPoints(0));
+		assertEquals(net, net.basisPoints(InvoiceLineItem.MAX_TAX_BASIS_POINTS));
+	}
+
+	@Test
+	void invoiceLineTotalsIncludeRoundedTax() {
+		InvoiceLineItem line = new InvoiceLineItem("Widget", 3, Money.parse("19.99"), 1_800);
+		// 18% of 59.97 is 10.7946
+		assertEquals(Money.parse("10.79"), line.getTaxAmount());
+		assertEquals(Money.parse("70.76"), line.getLineTotal());
+
+		InvoiceLineItem half = new InvoiceLineItem("Sticker", 1, Money.ofMinor(25), 1_000);
+		assertEquals(Money.ofMinor(3), half.getTaxAmount());
+		assertEquals(Money.ofMinor(28), half.getLineTotal());
+
+		InvoiceLineItem untaxed = new InvoiceLineItem("Service", 2, Money.parse("50.00"), 0);
+		assertEquals(Money.ZERO, untaxed.getTaxAmount());
+		assertEquals(Money.parse("100.00"), untaxed.getLineTotal());
+
+		InvoiceLineItem fullyTaxed = new InvoiceLineItem("Service", 2, Money.parse("50.00"), 10_000);
+		assertEquals(Money.parse("100.00"), fullyTaxed.getTaxAmount());
+		assertEquals(Money.parse("200.00"), fullyTaxed.getLineTotal());
+	}
+
+	@Test
+	void invoiceLineOverflowIsDetected() {
+		Money price = Money.ofMinor(Long.MAX_VALUE / 1_000);
+		assertThrows(ArithmeticException.class, () -> new InvoiceLineItem("Widget", 1_001, price, 0));
+		// The net fits, but net plus 100% tax does not
+		Money halfMax = Money.ofMinor(Long.MAX_VALUE / 2 + 1);
+		assertThrows(ArithmeticException.class, () -> new InvoiceLineItem("Widget", 1, halfMax, 10_000));
+	}
+}
@@ -0,0 +1,117 @@
+package com.revpay.service;
+
+import com.revpay.consoleui.Main;
+import com.revpay.entity.Money;
+import com.revpay.entity.Transaction;
+import com.revpay.entity.User;
+import com.revpay.entity.enums.AccountType;
+import com.revpay.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class IdempotencyServiceTest {
+
+	private static final int RETRIES = 8;
+	private static final Money OPENING_BALANCE = Money.ofMinor(100_000);
+
+	@MockBean
+	private Main consoleApp;
+
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private PaymentService paymentService;
+	@Autowired
+	private TransactionService transactionService;
+	@Autowired
+	private LedgerService ledgerService;
+
+	@Test
+	void concurrentRetriesWithOneKeyMoveMoneyOnce() throws Exception {
+		User sender = TestUsers.funded(userRepository, paymentService, OPENING_BALANCE);
+		User receiver = TestUsers.create(userRepository, AccountType.PERSONAL);
+		String key = UUID.randomUUID().toString();
+		Money amount = Money.ofMinor(1_500);
+
+		CountDownLatch startGate = new CountDownLatch(1);
+		List<Callable<Transaction>> retries = new ArrayList<>(RETRIES);
+		for (int i = 0; i < RETRIES; i++) {
+			retries.add(() -> {
+				User copy = userRepository.findById(sender.getId()).orElseThrow();
+				startGate.await();
+				return transactionService.sendMoney(copy, receiver.getEmail(), amount, key);
+			});
+		}
+
+		// A retry may replay the result or fail while the first call is still in
+		// flight; it must never move the money a second time
+		Set<Long> transactionIds = new HashSet<>();
+		ExecutorService executor = Executors.newFixedThreadPool(RETRIES);
+		try {
+			List<Future<Transaction>> futures = new ArrayList<>(RETRIES);
+			for (Callable<Transaction> retry : retries) {
+				futures.add(executor.submit(retry));
+			}
+			startGate.countDown();
+			for (Future<Transaction> future : futures) {
+				try {
+					transactionIds.add(future.get().getId());
+				} catch (ExecutionException rejected) {
+					// lost the race for the key
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertFalse(transactionIds.isEmpty(), "no retry succeeded");
+		assertEquals(1, transactionIds.size(), () -> "retries produced " + transactionIds);
+		assertEquals(OPENING_BALANCE.minus(amount), ledgerService.rebuildBalance(sender.getId()));
+		assertEquals(amount, ledgerService.rebuildBalance(receiver.getId()));
+
+		// A retry after the fact replays the same transaction
+		Transaction replay = transactionService.sendMoney(sender, receiver.getEmail(), amount, key);
+		assertEquals(transactionIds.iterator().next(), replay.getId());
+		assertEquals(OPENING_BALANCE.minus(amount), ledgerService.rebuildBalance(sender.getId()));
+	}
+
+	@Test
+	void reusedKeyWithADifferentRequestIsRejected() {
+		User sender = TestUsers.funded(userRepository, paymentService, OPENING_BALANCE);
+		User receiver = TestUsers.create(userRepository, AccountType.PERSONAL);
+		User otherReceiver = TestUsers.create(userRepository, AccountType.PERSONAL);
+		String key = UUID.randomUUID().toString();
+
+		transactionService.sendMoney(sender, receiver.getEmail(), Money.ofMinor(1_000), key);
+
+		assertThrows(RuntimeException.class,
+				() -> transactionService.sendMoney(sender, receiver.getEmail(), Money.ofMinor(2_000), key));
+		assertThrows(RuntimeException.class,
+				() -> transactionService.sendMoney(sender, otherReceiver.getEmail(), Money.ofMinor(1_000), key));
+		assertThrows(RuntimeException.class,
+				() -> transactionService.withdrawMoney(sender, Money.ofMinor(1_000), key));
+		assertEquals(OPENING_BALANCE.minus(Money.ofMinor(1_000)), ledgerService.rebuildBalance(sender.getId()));
+		assertEquals(Money.ZERO, ledgerService.rebuildBalance(otherReceiver.getId()));
+	}
+}
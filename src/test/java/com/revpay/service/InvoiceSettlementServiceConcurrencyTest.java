@@ -0,0 +1,149 @@
+package com.revpay.service;
+
+import com.revpay.consoleui.Main;
+import com.revpay.entity.Invoice;
+import com.revpay.entity.InvoiceLineItem;
+import com.revpay.entity.Money;
+import com.revpay.entity.User;
+import com.revpay.entity.enums.AccountType;
+import com.revpay.entity.enums.InvoiceStatus;
+import com.revpay.entity.enums.TransactionType;
+import com.revpay.repository.InvoiceRepository;
+import com.revpay.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many payers race to pay the same invoices, half through single settlement
+ * and half through bulk settlement; every invoice must be paid exactly once.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class InvoiceSettlementServiceConcurrencyTest {
+
+	private static final int PAYERS = 8;
+	private static final int INVOICES = 200;
+	private static final Money INVOICE_AMOUNT = Money.ofMinor(1_000);
+	private static final long SEED = 42L;
+
+	@MockBean
+	private Main consoleApp;
+
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private PaymentService paymentService;
+	@Autowired
+	private InvoiceService invoiceService;
+	@Autowired
+	private InvoiceSettlementService settlementService;
+	@Autowired
+	private InvoiceRepository invoiceRepository;
+	@Autowired
+	private LedgerService ledgerService;
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Test
+	void everyInvoiceIsPaidAtMostOnce() throws Exception {
+		User business = TestUsers.create(userRepository, AccountType.BUSINESS);
+		List<Long> invoiceIds = new ArrayList<>(INVOICES);
+		for (int i = 0; i < INVOICES; i++) {
+			Invoice invoice = invoiceService.createInvoice(business, "Customer " + i, null,
+					List.of(new InvoiceLineItem("Widget", 1, INVOICE_AMOUNT, 0)), "Net 30");
+			invoiceIds.add(invoice.getId());
+		}
+
+		List<User> payers = new ArrayList<>(PAYERS);
+		for (int p = 0; p < PAYERS; p++) {
+			payers.add(TestUsers.funded(userRepository, paymentService, INVOICE_AMOUNT.times(INVOICES)));
+		}
+		Money businessBefore = ledgerService.getBalance(business);
+		Money payersBefore = INVOICE_AMOUNT.times((long) INVOICES * PAYERS);
+
+		AtomicLong wins = new AtomicLong();
+		CountDownLatch startGate = new CountDownLatch(1);
+		List<Callable<Void>> tasks = new ArrayList<>(PAYERS);
+		for (int p = 0; p < PAYERS; p++) {
+			User payer = payers.get(p);
+			boolean bulk = p % 2 == 1;
+			List<Long> order = new ArrayList<>(invoiceIds);
+			Collections.shuffle(order, new Random(SEED + p));
+			tasks.add(() -> {
+				startGate.await();
+				if (bulk) {
+					settlementService.settleAll(payer, order).stream()
+							.filter(r -> r.getTransactionId() != null)
+							.forEach(r -> wins.incrementAndGet());
+					return null;
+				}
+				for (Long invoiceId : order) {
+					try {
+						settlementService.settle(invoiceId, payer);
+						wins.incrementAndGet();
+					} catch (RuntimeException expected) {
+						// already paid, lost the race or deadlock victim
+					}
+				}
+				return null;
+			});
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(PAYERS);
+		try {
+			List<Future<Void>> futures = new ArrayList<>(PAYERS);
+			for (Callable<Void> task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			startGate.countDown();
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		long paidInvoices = invoiceRepository.findAllById(invoiceIds).stream()
+				.filter(invoice -> invoice.getStatus() == InvoiceStatus.PAID)
+				.count();
+		MapSqlParameterSource byType = new MapSqlParameterSource("type", TransactionType.INVOICE_PAYMENT.name());
+		List<Map<String, Object>> duplicates = jdbcTemplate.queryForList(
+				"select note, count(*) as payments from transactions where transaction_type = :type " +
+						"group by note having count(*) > 1", byType);
+		Long payments = jdbcTemplate.queryForObject(
+				"select count(*) from transactions where transaction_type = :type", byType, Long.class);
+
+		assertTrue(duplicates.isEmpty(), () -> "invoices paid more than once: " + duplicates);
+		assertTrue(paidInvoices > 0, "no invoice was paid");
+		assertEquals(paidInvoices, payments);
+		assertEquals(paidInvoices, wins.get());
+
+		Money expected = INVOICE_AMOUNT.times(paidInvoices);
+		Money payersAfter = Money.ZERO;
+		for (User payer : payers) {
+			payersAfter = payersAfter.plus(ledgerService.rebuildBalance(payer.getId()));
+		}
+		assertEquals(expected, ledgerService.rebuildBalance(business.getId()).minus(businessBefore));
+		assertEquals(expected, payersBefore.minus(payersAfter));
+	}
+}
@@ -0,0 +1,65 @@
+package com.revpay.service;
+
+import com.revpay.consoleui.Main;
+import com.revpay.entity.Money;
+import com.revpay.entity.User;
+import com.revpay.entity.enums.AccountType;
+import com.revpay.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class LedgerServiceTest {
+
+	@MockBean
+	private Main consoleApp;
+
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private PaymentService paymentService;
+	@Autowired
+	private TransactionService transactionService;
+	@Autowired
+	private LedgerService ledgerService;
+
+	@Test
+	void everyPostingIsOffsetSoTheBooksBalance() {
+		Money clearingBefore = clearingTotal();
+
+		// Balance from before the ledger existed, carried over on first posting
+		User legacy = TestUsers.create(userRepository, AccountType.PERSONAL);
+		legacy.setWalletBalance(Money.ofMinor(5_000));
+		legacy = userRepository.save(legacy);
+
+		User payer = TestUsers.funded(userRepository, paymentService, Money.ofMinor(10_000));
+		User payee = TestUsers.create(userRepository, AccountType.PERSONAL);
+
+		transactionService.sendMoney(payer, payee.getEmail(), Money.ofMinor(2_500));
+		transactionService.sendMoney(legacy, payee.getEmail(), Money.ofMinor(500));
+		transactionService.withdrawMoney(payee, Money.ofMinor(1_000));
+
+		assertEquals(Money.ofMinor(7_500), ledgerService.rebuildBalance(payer.getId()));
+		assertEquals(Money.ofMinor(4_500), ledgerService.rebuildBalance(legacy.getId()));
+		assertEquals(Money.ofMinor(2_000), ledgerService.rebuildBalance(payee.getId()));
+
+		// 5,000 opening + 10,000 deposit came in, 1,000 went out
+		assertEquals(clearingBefore.minus(Money.ofMinor(14_000)), clearingTotal());
+		assertEquals(Money.ZERO, ledgerService.trialBalance());
+	}
+
+	// Replays every clearing account, so a gap in any of their sequences fails too
+	private Money clearingTotal() {
+		Money total = Money.ZERO;
+		for (int shard = 0; shard < LedgerService.CLEARING_SHARDS; shard++) {
+			total = total.plus(ledgerService.rebuildBalance((long) -shard));
+		}
+		return total;
+	}
+}
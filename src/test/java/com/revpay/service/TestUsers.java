@@ -0,0 +1,38 @@
+package com.revpay.service;
+
+import com.revpay.entity.Money;
+import com.revpay.entity.User;
+import com.revpay.entity.enums.AccountType;
+import com.revpay.repository.UserRepository;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates accounts for service tests. Wallets are funded through
+ * {@link PaymentService#addMoney}, so every balance has ledger entries behind it.
+ */
+final class TestUsers {
+
+	private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+	private TestUsers() {
+	}
+
+	static User create(UserRepository userRepository, AccountType accountType) {
+		int n = SEQUENCE.incrementAndGet();
+		User user = new User();
+		user.setFullName("Test User " + n);
+		user.setEmail("user" + n + "@test.revpay");
+		user.setPhone(String.format("8%09d", n));
+		user.setPasswordHash("password");
+		user.setTransactionPinHash("pin");
+		user.setAccountType(accountType);
+		return userRepository.save(user);
+	}
+
+	static User funded(UserRepository userRepository, PaymentService paymentService, Money balance) {
+		User user = create(userRepository, AccountType.PERSONAL);
+		paymentService.addMoney(user, balance);
+		return user;
+	}
+}
@@ -0,0 +1,242 @@
+package com.revpay.service;
+
+import com.revpay.consoleui.Main;
+import com.revpay.entity.Money;
+import com.revpay.entity.Transaction;
+import com.revpay.entity.User;
+import com.revpay.entity.enums.AccountType;
+import com.revpay.entity.enums.TransactionStatus;
+import com.revpay.exception.InsufficientBalanceException;
+import com.revpay.repository.TransactionRepository;
+import com.revpay.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Transfers from many threads: with both rows locked lowest id first, no
+ * transfer may fail with a deadlock, no wallet may be overdrawn, no request
+ * may be paid twice and no money may appear or disappear.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class TransactionServiceConcurrencyTest {
+
+	private static final Logger log = LoggerFactory.getLogger(TransactionServiceConcurrencyTest.class);
+
+	private static final int THREADS = 8;
+	private static final int TRANSFERS_PER_THREAD = 50;
+	private static final Money OPENING_BALANCE = Money.ofMinor(1_000_000);
+
+	@MockBean
+	private Main consoleApp;
+
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private TransactionRepository transactionRepository;
+	@Autowired
+	private PaymentService paymentService;
+	@Autowired
+	private TransactionService transactionService;
+	@Autowired
+	private LedgerService ledgerService;
+
+	@Test
+	void crossingTransfersNeitherDeadlockNorLoseMoney() throws Exception {
+		User a = TestUsers.funded(userRepository, paymentService, OPENING_BALANCE);
+		User b = TestUsers.funded(userRepository, paymentService, OPENING_BALANCE);
+
+		CountDownLatch startGate = new CountDownLatch(1);
+		List<Callable<Void>> tasks = new ArrayList<>(THREADS);
+		for (int t = 0; t < THREADS; t++) {
+			boolean aToB = t % 2 == 0;
+			long amount = t + 1;
+			tasks.add(() -> {
+				// A private copy per thread, as each console session has its own
+				User sender = userRepository.findById(aToB ? a.getId() : b.getId()).orElseThrow();
+				String receiver = aToB ? b.getEmail() : a.getEmail();
+				startGate.await();
+				for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+					transactionService.sendMoney(sender, receiver, Money.ofMinor(amount));
+				}
+				return null;
+			});
+		}
+
+		// Any deadlock or lock timeout surfaces here as an ExecutionException
+		for (Future<Void> future : runTogether(tasks, startGate)) {
+			future.get();
+		}
+
+		long aToBTotal = 0;
+		long bToATotal = 0;
+		for (int t = 0; t < THREADS; t++) {
+			long sent = (long) (t + 1) * TRANSFERS_PER_THREAD;
+			if (t % 2 == 0) {
+				aToBTotal += sent;
+			} else {
+				bToATotal += sent;
+			}
+		}
+
+		Money balanceA = ledgerService.rebuildBalance(a.getId());
+		Money balanceB = ledgerService.rebuildBalance(b.getId());
+		assertEquals(OPENING_BALANCE.times(2), balanceA.plus(balanceB));
+		assertEquals(OPENING_BALANCE.minus(Money.ofMinor(aToBTotal)).plus(Money.ofMinor(bToATotal)), balanceA);
+		assertEquals(balanceA, userRepository.findById(a.getId()).orElseThrow().getWalletBalance());
+		assertEquals(balanceB, userRepository.findById(b.getId()).orElseThrow().getWalletBalance());
+	}
+
+	@Test
+	void parallelTransfersOutOfOneWalletNeverOverdrawIt() throws Exception {
+		Money balance = Money.ofMinor(10_000);
+		Money amount = Money.ofMinor(1_500);
+		int attempts = 2 * THREADS;
+		User sender = TestUsers.funded(userRepository, paymentService, balance);
+		List<User> receivers = new ArrayList<>(attempts);
+		for (int i = 0; i < attempts; i++) {
+			receivers.add(TestUsers.create(userRepository, AccountType.PERSONAL));
+		}
+
+		CountDownLatch startGate = new CountDownLatch(1);
+		List<Callable<Transaction>> tasks = new ArrayList<>(attempts);
+		for (User receiver : receivers) {
+			tasks.add(() -> {
+				User copy = userRepository.findById(sender.getId()).orElseThrow();
+				startGate.await();
+				return transactionService.sendMoney(copy, receiver.getEmail(), amount);
+			});
+		}
+
+		int succeeded = 0;
+		for (Future<Transaction> future : runTogether(tasks, startGate)) {
+			try {
+				future.get();
+				succeeded++;
+			} catch (ExecutionException e) {
+				// Only a lack of funds may stop a transfer, never a lock conflict
+				assertInstanceOf(InsufficientBalanceException.class, e.getCause());
+			}
+		}
+
+		long expected = balance.getMinorUnits() / amount.getMinorUnits();
+		assertEquals(expected, succeeded);
+		Money remaining = ledgerService.rebuildBalance(sender.getId());
+		assertFalse(remaining.isNegative());
+		assertEquals(balance.minus(amount.times(expected)), remaining);
+		assertEquals(remaining, userRepository.findById(sender.getId()).orElseThrow().getWalletBalance());
+	}
+
+	@Test
+	void parallelAcceptsPayARequestOnce() throws Exception {
+		Money amount = Money.ofMinor(2_500);
+		User requester = TestUsers.create(userRepository, AccountType.PERSONAL);
+		User payer = TestUsers.funded(userRepository, paymentService, Money.ofMinor(100_000));
+		Long requestId = transactionService.requestMoney(requester, payer.getEmail(), amount).getId();
+
+		CountDownLatch startGate = new CountDownLatch(1);
+		List<Callable<Transaction>> tasks = new ArrayList<>(THREADS);
+		for (int t = 0; t < THREADS; t++) {
+			tasks.add(() -> {
+				User copy = userRepository.findById(payer.getId()).orElseThrow();
+				startGate.await();
+				return transactionService.acceptRequest(requestId, copy);
+			});
+		}
+
+		int succeeded = 0;
+		for (Future<Transaction> future : runTogether(tasks, startGate)) {
+			try {
+				future.get();
+				succeeded++;
+			} catch (ExecutionException rejected) {
+				// already processed by the winner
+			}
+		}
+
+		assertEquals(1, succeeded);
+		assertEquals(TransactionStatus.COMPLETED, transactionRepository.findById(requestId).orElseThrow().getStatus());
+		assertEquals(Money.ofMinor(100_000).minus(amount), ledgerService.rebuildBalance(payer.getId()));
+		assertEquals(amount, ledgerService.rebuildBalance(requester.getId()));
+	}
+
+	@Test
+	void disjointPairsRunInParallel() throws Exception {
+		double single = transfersPerSecond(1);
+		double parallel = transfersPerSecond(THREADS);
+		log.info("Disjoint-pair transfers: {} /s with 1 thread, {} /s with {} threads",
+				Math.round(single), Math.round(parallel), THREADS);
+		// Throughput on the in-memory database is only recorded; pairs must not serialize into a crawl
+		assertTrue(parallel > single / 2, () -> "parallel " + parallel + "/s vs single " + single + "/s");
+	}
+
+	// Each thread moves money back and forth within its own pair of wallets
+	private double transfersPerSecond(int pairs) throws Exception {
+		CountDownLatch startGate = new CountDownLatch(1);
+		List<User[]> wallets = new ArrayList<>(pairs);
+		List<Callable<Void>> tasks = new ArrayList<>(pairs);
+		for (int p = 0; p < pairs; p++) {
+			User a = TestUsers.funded(userRepository, paymentService, OPENING_BALANCE);
+			User b = TestUsers.funded(userRepository, paymentService, OPENING_BALANCE);
+			wallets.add(new User[]{a, b});
+			tasks.add(() -> {
+				startGate.await();
+				for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+					transactionService.sendMoney(a, b.getEmail(), Money.ofMinor(1));
+					transactionService.sendMoney(b, a.getEmail(), Money.ofMinor(1));
+				}
+				return null;
+			});
+		}
+
+		long started = System.nanoTime();
+		for (Future<Void> future : runTogether(tasks, startGate)) {
+			future.get();
+		}
+		double seconds = (System.nanoTime() - started) / 1e9;
+
+		for (User[] pair : wallets) {
+			assertEquals(OPENING_BALANCE, ledgerService.rebuildBalance(pair[0].getId()));
+			assertEquals(OPENING_BALANCE, ledgerService.rebuildBalance(pair[1].getId()));
+		}
+		return pairs * TRANSFERS_PER_THREAD * 2 / seconds;
+	}
+
+	// Submits every task, opens the gate once all are queued and waits for them to finish
+	private static <T> List<Future<T>> runTogether(List<Callable<T>> tasks, CountDownLatch startGate)
+			throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+		try {
+			List<Future<T>> futures = new ArrayList<>(tasks.size());
+			for (Callable<T> task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			startGate.countDown();
+			executor.shutdown();
+			executor.awaitTermination(5, TimeUnit.MINUTES);
+			return futures;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}